@@ -0,0 +1,55 @@
+package com.wallet.wallet_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.util.stream.Collectors;
+
+/**
+ * Reports how requests are executed.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on a Java 21 runtime, Spring Boot runs request handling, the service
+ * calls made from it, streamed responses and scheduled tasks on virtual threads. A blocked JDBC call then no longer
+ * holds a Tomcat thread, so the number of requests in flight is no longer capped by {@code server.tomcat.threads.max}
+ * and the database is protected by the connection pool alone: requests beyond
+ * {@code spring.datasource.hikari.maximum-pool-size} wait up to {@code connection-timeout} for a connection. On an
+ * older runtime the property is ignored and requests run on platform threads.
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    private final boolean virtualThreadsEnabled;
+
+    // the pools themselves rather than the DataSource bean, which wraps them when reads are routed to a replica
+    private final ObjectProvider<HikariDataSource> connectionPools;
+
+    public ExecutionModeConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                               ObjectProvider<HikariDataSource> connectionPools) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.connectionPools = connectionPools;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode() {
+        String poolSizes = connectionPools.orderedStream()
+                .map(pool -> pool.getPoolName() + "=" + pool.getMaximumPoolSize())
+                .collect(Collectors.joining(", "));
+        if (!virtualThreadsEnabled) {
+            logger.info("Requests run on platform threads, with database connection pools of {}", poolSizes);
+        } else if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            logger.info("Requests run on virtual threads, with database connection pools of {}", poolSizes);
+        } else {
+            logger.warn("spring.threads.virtual.enabled needs Java 21 or later, running on Java {}: requests run on "
+                    + "platform threads, with database connection pools of {}", JavaVersion.getJavaVersion(), poolSizes);
+        }
+    }
+}
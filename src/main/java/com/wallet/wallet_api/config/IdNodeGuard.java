@@ -0,0 +1,169 @@
+package com.wallet.wallet_api.config;
+
+import com.wallet.wallet_api.entities.IdNodeLease;
+import com.wallet.wallet_api.entities.id.TimeOrderedIdGenerator;
+import com.wallet.wallet_api.repositories.IdNodeLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link TimeOrderedIdGenerator} ids unique across instances and restarts.
+ * <p>
+ * At startup the instance leases its {@code wallet.id.node} in the {@code id_node_lease} table and renews the lease
+ * every {@code renew-interval}. Another instance still renewing the same node makes the startup fail after waiting
+ * one {@code ttl}, which is also how long a node left by a crashed instance stays taken. The generators are then
+ * seeded with the newest id of the node in each of their tables, so that a restart within the same second, or
+ * with the clock stepped back, does not issue those ids again; a clock more than
+ * {@value TimeOrderedIdGenerator#MAX_CLOCK_BEHIND_SECONDS}s behind them makes the startup fail.
+ * <p>
+ * With {@code wallet.id.node-lease.enabled} off the node is not leased, for setups where a single instance at a time
+ * uses the database, such as the test contexts of one build.
+ */
+@Component
+public class IdNodeGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdNodeGuard.class);
+
+    private static final String NODE_IN_USE = "wallet.id.node %d is in use by another instance";
+    private static final String TTL_TOO_SHORT = "wallet.id.node-lease.ttl must be longer than the renew-interval";
+
+    private final IdNodeLeaseRepository idNodeLeaseRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int node;
+
+    private final boolean leaseEnabled;
+
+    private final Duration ttl;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public IdNodeGuard(IdNodeLeaseRepository idNodeLeaseRepository, TransactionTemplate transactionTemplate,
+                       JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                       @Value("${spring.jpa.properties." + TimeOrderedIdGenerator.NODE_SETTING + ":0}") int node,
+                       @Value("${wallet.id.node-lease.enabled:true}") boolean leaseEnabled,
+                       @Value("${wallet.id.node-lease.ttl:30s}") Duration ttl,
+                       @Value("${wallet.id.node-lease.renew-interval:PT10S}") Duration renewInterval) {
+        if (ttl.compareTo(renewInterval) <= 0) {
+            throw new IllegalArgumentException(TTL_TOO_SHORT);
+        }
+        this.idNodeLeaseRepository = idNodeLeaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.node = node;
+        this.leaseEnabled = leaseEnabled;
+        this.ttl = ttl;
+    }
+
+    @PostConstruct
+    public void start() throws InterruptedException {
+        if (leaseEnabled) {
+            acquireNode();
+        }
+        seedGenerators();
+    }
+
+    /**
+     * Leases the node of this instance, waiting up to the TTL for the lease of another instance to expire.
+     *
+     * @throws IllegalStateException if another instance kept renewing the lease
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquireNode() throws InterruptedException {
+        long deadline = System.nanoTime() + ttl.toNanos();
+        long pollMillis = Math.max(1, Math.min(1000, ttl.toMillis() / 10));
+        while (!tryAcquireNode()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(String.format(NODE_IN_USE, node));
+            }
+            Thread.sleep(pollMillis);
+        }
+        logger.info("Issuing ids as node {}", node);
+    }
+
+    /**
+     * Renews the lease of the node on the {@code wallet.id.node-lease.renew-interval} schedule, or leases it again
+     * if it expired and no other instance took it.
+     */
+    @Scheduled(fixedDelayString = "${wallet.id.node-lease.renew-interval:PT10S}",
+            initialDelayString = "${wallet.id.node-lease.renew-interval:PT10S}")
+    public void renewNode() {
+        if (!leaseEnabled) {
+            return;
+        }
+        if (idNodeLeaseRepository.renew(node, owner, LocalDateTime.now()) == 0 && !tryAcquireNode()) {
+            logger.error("Lost the lease of wallet.id.node {}; another instance may be issuing the same ids", node);
+        }
+    }
+
+    @PreDestroy
+    public void releaseNode() {
+        if (!leaseEnabled) {
+            return;
+        }
+        try {
+            idNodeLeaseRepository.release(node, owner);
+        } catch (Exception ex) {
+            logger.warn("Failed to release wallet.id.node {}, it is free again after {}: {}", node, ttl, ex.getMessage());
+        }
+    }
+
+    private boolean tryAcquireNode() {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdNodeLease lease = idNodeLeaseRepository.findByNodeForUpdate(node).orElse(null);
+                if (lease != null && !owner.equals(lease.getOwner()) && lease.getRenewedAt().isAfter(now.minus(ttl))) {
+                    return false;
+                }
+                idNodeLeaseRepository.save(new IdNodeLease(node, owner, now));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // another instance inserted the lease first
+            return false;
+        }
+    }
+
+    private void seedGenerators() {
+        long fromId = TimeOrderedIdGenerator.firstIdOf(TimeOrderedIdGenerator.currentSecond());
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof TimeOrderedIdGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                String id = entityPersister.getIdentifierColumnNames()[0];
+                // only ids from the current second on can be issued again
+                Long lastId = jdbcTemplate.queryForObject("SELECT MAX(" + id + ") FROM " + entityPersister.getTableName()
+                                + " WHERE " + id + " >= ? AND (" + id + " >> " + TimeOrderedIdGenerator.SEQUENCE_BITS
+                                + ") & " + TimeOrderedIdGenerator.MAX_NODE + " = ?",
+                        Long.class, fromId, generator.getNode());
+                if (lastId != null) {
+                    generator.seed(lastId);
+                    logger.info("Continuing the ids of {} after {}", entityPersister.getEntityName(), lastId);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.wallet.wallet_api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica database lags behind the primary.
+ * <p>
+ * The lag is read with {@code lagQuery}, {@code SHOW REPLICA STATUS} by default, from its
+ * {@code Seconds_Behind_Source} (MySQL) or {@code Seconds_Behind_Master} (MariaDB) column, or else its first column.
+ * A query without rows means the database is not replicating and has no lag, which is the case of a local stand-in.
+ * The replica is unusable until the first check, while it lags more than {@code maxLag}, while replication is
+ * stopped and while it cannot be queried. The last lag is published as the {@code wallet.datasource.replica.lag}
+ * gauge, in seconds.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    public static final String LAG_METRIC = "wallet.datasource.replica.lag";
+
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    private final String lagQuery;
+
+    private final long maxLagSeconds;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, String lagQuery, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toSeconds();
+        Gauge.builder(LAG_METRIC, this, monitor -> monitor.lagSeconds)
+                .description("Seconds the replica database lags behind the primary at the last check")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the replica lag on the {@code wallet.datasource.replica.lag-check-interval} schedule.
+     */
+    @Scheduled(fixedDelayString = "${wallet.datasource.replica.lag-check-interval:PT5S}")
+    public void checkLag() {
+        Double lag;
+        try {
+            lag = replicaJdbcTemplate.query(lagQuery, resultSet -> {
+                if (!resultSet.next()) {
+                    return 0.0;
+                }
+                Number value = (Number) resultSet.getObject(lagColumn(resultSet.getMetaData()));
+                return value == null ? null : value.doubleValue();
+            });
+        } catch (DataAccessException | ClassCastException ex) {
+            if (replicaUsable) {
+                logger.warn("Replica database is unavailable, reading from the primary: {}", ex.getMessage());
+            }
+            lagSeconds = Double.NaN;
+            replicaUsable = false;
+            return;
+        }
+
+        boolean usable = lag != null && lag <= maxLagSeconds;
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica database lags {}s, reading from the replica", lag);
+            } else if (lag == null) {
+                logger.warn("Replica database is not replicating, reading from the primary");
+            } else {
+                logger.warn("Replica database lags {}s (max {}s), reading from the primary", lag, maxLagSeconds);
+            }
+        }
+        lagSeconds = lag == null ? Double.NaN : lag;
+        replicaUsable = usable;
+    }
+
+    /**
+     * Tells whether reads may be sent to the replica according to the last check.
+     *
+     * @return true if the replica was reachable and within the maximum lag at the last check
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+                    return column;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.wallet.wallet_api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Routes the connections of read-only transactions to the replica database and every other connection, including
+ * the ones used outside of a transaction, to the primary database.
+ * <p>
+ * A read-only transaction still goes to the primary while the replica is lagging or unreachable (unless
+ * {@code fallbackToPrimary} is off), and for {@code readYourWritesWindow} after a write transaction of this
+ * instance committed, so that a client reading right after its write sees it. Every decision is counted in the
+ * {@code wallet.datasource.routing} metric, tagged with the target and the reason.
+ * <p>
+ * The decision is taken when a connection is acquired, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that acquires it once the
+ * transaction is set up, and connections must be released at the end of every transaction.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String ROUTING_METRIC = "wallet.datasource.routing";
+
+    private static final String TARGET_TAG = "target";
+    private static final String REASON_TAG = "reason";
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private enum Route {
+        NO_TRANSACTION(Target.PRIMARY, "no-transaction"),
+        READ_WRITE(Target.PRIMARY, "read-write"),
+        RECENT_WRITE(Target.PRIMARY, "recent-write"),
+        REPLICA_UNAVAILABLE(Target.PRIMARY, "replica-unavailable"),
+        READ_ONLY(Target.REPLICA, "read-only");
+
+        private final Target target;
+
+        private final String reason;
+
+        Route(Target target, String reason) {
+            this.target = target;
+            this.reason = reason;
+        }
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    private final long readYourWritesWindowNanos;
+
+    private final boolean fallbackToPrimary;
+
+    private final Map<Route, Counter> routed = new EnumMap<>(Route.class);
+
+    private volatile long lastWriteNanos;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, Duration readYourWritesWindow,
+                                    boolean fallbackToPrimary, MeterRegistry meterRegistry) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.lastWriteNanos = System.nanoTime() - readYourWritesWindowNanos;
+        for (Route route : Route.values()) {
+            routed.put(route, Counter.builder(ROUTING_METRIC)
+                    .description("Database connections acquired, by target database and routing reason")
+                    .tag(TARGET_TAG, route.target.name().toLowerCase())
+                    .tag(REASON_TAG, route.reason)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        routed.get(route).increment();
+        return route.target;
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.NO_TRANSACTION;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWriteNanos = System.nanoTime();
+                    }
+                });
+            }
+            return Route.READ_WRITE;
+        }
+        if (System.nanoTime() - lastWriteNanos < readYourWritesWindowNanos) {
+            return Route.RECENT_WRITE;
+        }
+        if (fallbackToPrimary && !replicaLagMonitor.isReplicaUsable()) {
+            return Route.REPLICA_UNAVAILABLE;
+        }
+        return Route.READ_ONLY;
+    }
+}
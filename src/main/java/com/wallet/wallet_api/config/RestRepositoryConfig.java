@@ -0,0 +1,82 @@
+package com.wallet.wallet_api.config;
+
+import com.wallet.wallet_api.entities.User;
+import com.wallet.wallet_api.repositories.projections.UserHeader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Limits what Spring Data REST exports under {@code spring.data.rest.base-path}.
+ * <p>
+ * The user collection resource is disabled unless {@code wallet.rest.users.collection-resource-enabled} is on:
+ * {@code GET /api/users} is served by the keyset-paged listing of the user controller instead. When it is enabled,
+ * it serves {@code GET /api/users} in place of that listing, its pages are capped by
+ * {@code spring.data.rest.max-page-size} and embed users as their {@link UserHeader} excerpt.
+ */
+@Configuration
+public class RestRepositoryConfig implements RepositoryRestConfigurer {
+
+    private static final String USERS_PATH = "/users";
+
+    private final boolean userCollectionResourceEnabled;
+
+    public RestRepositoryConfig(@Value("${wallet.rest.users.collection-resource-enabled:false}") boolean userCollectionResourceEnabled) {
+        this.userCollectionResourceEnabled = userCollectionResourceEnabled;
+    }
+
+    @Override
+    public void configureRepositoryRestConfiguration(RepositoryRestConfiguration config, CorsRegistry cors) {
+        // projections are only detected next to their domain type, so the header is registered for ?projection= too
+        config.getProjectionConfiguration().addProjection(UserHeader.class);
+        if (!userCollectionResourceEnabled) {
+            config.getExposureConfiguration()
+                    .forDomainType(User.class)
+                    .withCollectionExposure((metadata, httpMethods) -> httpMethods.disable(HttpMethod.GET, HttpMethod.HEAD));
+        }
+    }
+
+    /**
+     * Hands the reads of the user collection to Spring Data REST while its resource is enabled: its handler mapping
+     * comes after the controller mappings, which would otherwise answer {@code GET /api/users} themselves.
+     *
+     * @param restHandlerMapping the Spring Data REST handler mapping
+     * @param config the Spring Data REST configuration
+     * @return the handler mapping of the user collection reads
+     */
+    @Bean
+    @ConditionalOnProperty(name = "wallet.rest.users.collection-resource-enabled", havingValue = "true")
+    public HandlerMapping userCollectionResourceHandlerMapping(@Qualifier("restHandlerMapping") HandlerMapping restHandlerMapping,
+                                                               RepositoryRestConfiguration config) {
+        return new CollectionReadHandlerMapping(restHandlerMapping, config.getBasePath().getPath() + USERS_PATH);
+    }
+
+    private record CollectionReadHandlerMapping(HandlerMapping restHandlerMapping, String path)
+            implements HandlerMapping, Ordered {
+
+        @Override
+        public HandlerExecutionChain getHandler(HttpServletRequest request) throws Exception {
+            boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+            if (!read || !path.equals(UrlPathHelper.defaultInstance.getLookupPathForRequest(request))) {
+                return null;
+            }
+            return restHandlerMapping.getHandler(request);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
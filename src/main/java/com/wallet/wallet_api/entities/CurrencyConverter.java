@@ -1,48 +1,85 @@
 package com.wallet.wallet_api.entities;
 
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.EnumMap;
 import java.util.Map;
 
 public class CurrencyConverter {
 
-    private static final Map<String, BigDecimal> exchangeRates = new HashMap<>();
+    public static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+    public static final int SCALE = 2;
+
+    // the balance and amount columns round half away from zero as well
+    public static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
+
+    /**
+     * The built-in exchange rates, version 0. Transfers use the rates of
+     * {@link com.wallet.wallet_api.services.ExchangeRateProvider}, loaded from {@code wallet.fx.rates-location}.
+     */
+    public static final ExchangeRateSnapshot DEFAULT_RATES;
 
     static {
+        Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> exchangeRates = new EnumMap<>(CurrencyCode.class);
+        for (CurrencyCode currency : CurrencyCode.values()) {
+            exchangeRates.put(currency, new EnumMap<>(CurrencyCode.class));
+        }
+
         // BGN to others:
-        exchangeRates.put("BGN_EUR", BigDecimal.valueOf(0.51));  // 1 BGN = 0.51 EUR
-        exchangeRates.put("BGN_GBP", BigDecimal.valueOf(0.44));  // 1 BGN = 0.44 GBP
-        exchangeRates.put("BGN_USD", BigDecimal.valueOf(0.57));  // 1 BGN = 0.57 USD
+        exchangeRates.get(CurrencyCode.BGN).put(CurrencyCode.EUR, new BigDecimal("0.51"));  // 1 BGN = 0.51 EUR
+        exchangeRates.get(CurrencyCode.BGN).put(CurrencyCode.GBP, new BigDecimal("0.44"));  // 1 BGN = 0.44 GBP
+        exchangeRates.get(CurrencyCode.BGN).put(CurrencyCode.USD, new BigDecimal("0.57"));  // 1 BGN = 0.57 USD
 
         // EUR to others:
-        exchangeRates.put("EUR_BGN", BigDecimal.valueOf(1.96));  // 1 EUR = 1.96 BGN
-        exchangeRates.put("EUR_GBP", BigDecimal.valueOf(0.86));  // 1 EUR = 0.86 GBP
-        exchangeRates.put("EUR_USD", BigDecimal.valueOf(1.18));  // 1 EUR = 1.18 USD
+        exchangeRates.get(CurrencyCode.EUR).put(CurrencyCode.BGN, new BigDecimal("1.96"));  // 1 EUR = 1.96 BGN
+        exchangeRates.get(CurrencyCode.EUR).put(CurrencyCode.GBP, new BigDecimal("0.86"));  // 1 EUR = 0.86 GBP
+        exchangeRates.get(CurrencyCode.EUR).put(CurrencyCode.USD, new BigDecimal("1.18"));  // 1 EUR = 1.18 USD
 
         // GBP to others:
-        exchangeRates.put("GBP_BGN", BigDecimal.valueOf(2.27));  // 1 GBP = 2.27 BGN
-        exchangeRates.put("GBP_EUR", BigDecimal.valueOf(1.16));  // 1 GBP = 1.16 EUR
-        exchangeRates.put("GBP_USD", BigDecimal.valueOf(1.38));  // 1 GBP = 1.38 USD
+        exchangeRates.get(CurrencyCode.GBP).put(CurrencyCode.BGN, new BigDecimal("2.27"));  // 1 GBP = 2.27 BGN
+        exchangeRates.get(CurrencyCode.GBP).put(CurrencyCode.EUR, new BigDecimal("1.16"));  // 1 GBP = 1.16 EUR
+        exchangeRates.get(CurrencyCode.GBP).put(CurrencyCode.USD, new BigDecimal("1.38"));  // 1 GBP = 1.38 USD
 
         // USD to others:
-        exchangeRates.put("USD_BGN", BigDecimal.valueOf(1.75));  // 1 USD = 1.75 BGN
-        exchangeRates.put("USD_EUR", BigDecimal.valueOf(0.85));  // 1 USD = 0.85 EUR
-        exchangeRates.put("USD_GBP", BigDecimal.valueOf(0.72));  // 1 USD = 0.72 GBP
+        exchangeRates.get(CurrencyCode.USD).put(CurrencyCode.BGN, new BigDecimal("1.75"));  // 1 USD = 1.75 BGN
+        exchangeRates.get(CurrencyCode.USD).put(CurrencyCode.EUR, new BigDecimal("0.85"));  // 1 USD = 0.85 EUR
+        exchangeRates.get(CurrencyCode.USD).put(CurrencyCode.GBP, new BigDecimal("0.72"));  // 1 USD = 0.72 GBP
+
+        DEFAULT_RATES = new ExchangeRateSnapshot(0, Instant.EPOCH, exchangeRates);
     }
 
+    /**
+     * Converts an amount between currencies with the built-in rates, rounded to {@link #SCALE} decimals with
+     * {@link #ROUNDING_MODE}.
+     *
+     * @param amount       the amount in the source currency
+     * @param fromCurrency the source currency
+     * @param toCurrency   the target currency
+     * @return the amount in the target currency, or the original amount if both currencies are the same
+     * @throws IllegalArgumentException if there is no exchange rate between the currencies
+     */
+    public static BigDecimal convert(BigDecimal amount, CurrencyCode fromCurrency, CurrencyCode toCurrency) {
+        return DEFAULT_RATES.convert(amount, fromCurrency, toCurrency);
+    }
 
+    /**
+     * Converts an amount between currencies given by their codes.
+     *
+     * @see #convert(BigDecimal, CurrencyCode, CurrencyCode)
+     */
     public static BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
         if (fromCurrency.equals(toCurrency)) {
-            return amount; // If currencies are the same, we return the original amount.
+            return amount;
         }
-
-        String key = fromCurrency + "_" + toCurrency;
-        BigDecimal rate = exchangeRates.get(key);
-
-        if (rate == null) {
-            throw new IllegalArgumentException("Exchange rate not found for " + key);
+        try {
+            return convert(amount, CurrencyCode.valueOf(fromCurrency), CurrencyCode.valueOf(toCurrency));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Exchange rate not found for " + fromCurrency + "_" + toCurrency);
         }
-
-        return amount.multiply(rate);
     }
 }
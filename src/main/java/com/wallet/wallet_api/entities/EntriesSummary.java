@@ -1,12 +1,15 @@
 package com.wallet.wallet_api.entities;
 
 
+import com.wallet.wallet_api.entities.enums.EntryType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -17,6 +20,10 @@ public class EntriesSummary {
 
     private BigDecimal totalCredit;
 
+    private Map<EntryType, BigDecimal> totalDebitByType = new EnumMap<>(EntryType.class);
+
+    private Map<EntryType, BigDecimal> totalCreditByType = new EnumMap<>(EntryType.class);
+
     private List<Entry> entries;
 
-}
\ No newline at end of file
+}
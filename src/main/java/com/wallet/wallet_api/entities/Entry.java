@@ -3,21 +3,24 @@ package com.wallet.wallet_api.entities;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.wallet.wallet_api.entities.enums.EntryOperationType;
 import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.entities.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_entry_wallet_date", columnList = "wallet_id, date"))
 @Data
 @NoArgsConstructor
 public class Entry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     @NonNull
     private Long id;
 
@@ -32,13 +35,27 @@ public class Entry {
 
     private LocalDateTime date = LocalDateTime.now();
 
-    @ManyToOne
+    // lazy: entries are read by wallet id, and the wallet is loaded only if it is used
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id")
     @JsonIgnore
+    @ToString.Exclude
     private Wallet wallet;
 
     private String fromCurrency;
 
     private String toCurrency;
 
+    private Long rateVersion;
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Entry other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Entry.class.hashCode();
+    }
+
 }
@@ -0,0 +1,58 @@
+package com.wallet.wallet_api.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Index row of a compressed segment file holding archived entries of a wallet, sorted by date and id.
+ * The segments of a wallet do not overlap: ordered by first date and id, each one continues where the previous
+ * one ends, and an archival run splits the entries since the previous cutoff into segments of at most
+ * {@code wallet.archive.max-segment-entries} entries.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_entry_archive_segment_wallet_dates", columnList = "wallet_id, first_date, last_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    @ToString.Exclude
+    private Wallet wallet;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "first_date", nullable = false)
+    private LocalDateTime firstDate;
+
+    @Column(name = "last_date", nullable = false)
+    private LocalDateTime lastDate;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "archived_until", nullable = false)
+    private LocalDateTime archivedUntil;
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof EntryArchiveSegment other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntryArchiveSegment.class.hashCode();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.wallet.wallet_api.entities;
+
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The total and the number of the entries of a wallet with the same type and operation type within a month.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_entry_monthly_rollup_wallet_month_type",
+        columnNames = {"wallet_id", "month_start", "type", "operation_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    @ToString.Exclude
+    private Wallet wallet;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntryType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation_type", nullable = false)
+    private EntryOperationType operationType;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof EntryMonthlyRollup other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntryMonthlyRollup.class.hashCode();
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.wallet.wallet_api.entities;
+
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable set of exchange rates, identified by its version.
+ * <p>
+ * A transfer converts with the snapshot it started with, so a snapshot replaced in the meantime keeps serving it.
+ */
+public final class ExchangeRateSnapshot {
+
+    private static final int CURRENCIES = CurrencyCode.values().length;
+
+    private final long version;
+
+    private final Instant loadedAt;
+
+    // rates[from.ordinal()][to.ordinal()], null when there is no rate
+    private final BigDecimal[][] rates = new BigDecimal[CURRENCIES][CURRENCIES];
+
+    public ExchangeRateSnapshot(long version, Instant loadedAt, Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> rates) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        rates.forEach((from, toRates) -> toRates.forEach((to, rate) -> this.rates[from.ordinal()][to.ordinal()] = rate));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Converts an amount between currencies, rounded to {@link CurrencyConverter#SCALE} decimals with
+     * {@link CurrencyConverter#ROUNDING_MODE}.
+     *
+     * @param amount       the amount in the source currency
+     * @param fromCurrency the source currency
+     * @param toCurrency   the target currency
+     * @return the amount in the target currency, or the original amount if both currencies are the same
+     * @throws IllegalArgumentException if there is no exchange rate between the currencies
+     */
+    public BigDecimal convert(BigDecimal amount, CurrencyCode fromCurrency, CurrencyCode toCurrency) {
+        if (fromCurrency == toCurrency) {
+            return amount; // If currencies are the same, we return the original amount.
+        }
+
+        BigDecimal rate = rates[fromCurrency.ordinal()][toCurrency.ordinal()];
+
+        if (rate == null) {
+            throw new IllegalArgumentException("Exchange rate not found for " + fromCurrency + "_" + toCurrency);
+        }
+
+        return amount.multiply(rate, CurrencyConverter.MATH_CONTEXT)
+                .setScale(CurrencyConverter.SCALE, CurrencyConverter.ROUNDING_MODE);
+    }
+
+    /**
+     * Tells whether another snapshot holds the same rates, whatever its version.
+     *
+     * @param other the other snapshot
+     * @return true if both snapshots have a rate for the same currency pairs and the rates are equal
+     */
+    public boolean hasSameRates(ExchangeRateSnapshot other) {
+        return Arrays.deepEquals(rates, other.rates);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ExchangeRateSnapshot(version=").append(version).append(", rates=");
+        for (CurrencyCode from : CurrencyCode.values()) {
+            for (CurrencyCode to : CurrencyCode.values()) {
+                BigDecimal rate = rates[from.ordinal()][to.ordinal()];
+                if (rate != null) {
+                    builder.append(' ').append(from).append('_').append(to).append('=').append(rate.toPlainString());
+                }
+            }
+        }
+        return builder.append(')').toString();
+    }
+}
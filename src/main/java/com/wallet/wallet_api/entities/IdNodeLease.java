@@ -0,0 +1,30 @@
+package com.wallet.wallet_api.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The instance that currently issues ids as a {@code wallet.id.node}; see {@code IdNodeGuard}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdNodeLease {
+
+    @Id
+    private Integer node;
+
+    @Column(length = 36, nullable = false)
+    private String owner;
+
+    @Column(name = "renewed_at", nullable = false)
+    private LocalDateTime renewedAt;
+
+}
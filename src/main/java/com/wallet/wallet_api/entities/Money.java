@@ -0,0 +1,121 @@
+package com.wallet.wallet_api.entities;
+
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * An immutable amount of a currency, held as a long count of minor units ({@link CurrencyConverter#SCALE}
+ * decimals), so that adding, subtracting and comparing amounts does not allocate intermediate decimals.
+ * <p>
+ * Arithmetic fails with an {@link ArithmeticException} on overflow and with an {@link IllegalArgumentException}
+ * when the currencies differ.
+ */
+public final class Money implements Comparable<Money> {
+
+    private final long minorUnits;
+
+    private final CurrencyCode currency;
+
+    private Money(long minorUnits, CurrencyCode currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinorUnits(long minorUnits, CurrencyCode currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Creates an amount from a decimal, rounded to {@link CurrencyConverter#SCALE} decimals with
+     * {@link CurrencyConverter#ROUNDING_MODE} like the amount columns do.
+     *
+     * @param amount   the decimal amount
+     * @param currency the currency of the amount
+     * @return the amount
+     * @throws ArithmeticException if the amount does not fit in a long count of minor units
+     */
+    public static Money of(BigDecimal amount, CurrencyCode currency) {
+        return new Money(toMinorUnits(amount), currency);
+    }
+
+    public static Money zero(CurrencyCode currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Converts a decimal amount to minor units, rounded like {@link #of(BigDecimal, CurrencyCode)}.
+     *
+     * @param amount the decimal amount
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount does not fit in a long count of minor units
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        // scaleByPowerOfTen keeps a compact decimal compact, unlike unscaledValue which builds a BigInteger
+        return amount.setScale(CurrencyConverter.SCALE, CurrencyConverter.ROUNDING_MODE)
+                .scaleByPowerOfTen(CurrencyConverter.SCALE)
+                .longValueExact();
+    }
+
+    /**
+     * Converts minor units to a decimal amount with {@link CurrencyConverter#SCALE} decimals.
+     *
+     * @param minorUnits the amount in minor units
+     * @return the decimal amount
+     */
+    public static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, CurrencyConverter.SCALE);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toAmount(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    private Money sameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+        return other;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money other && minorUnits == other.minorUnits && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toAmount(minorUnits).toPlainString() + " " + currency;
+    }
+}
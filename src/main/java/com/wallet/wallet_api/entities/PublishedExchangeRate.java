@@ -0,0 +1,56 @@
+package com.wallet.wallet_api.entities;
+
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A rate of a published {@link ExchangeRateSnapshot}, so that the {@code rateVersion} of a transfer entry can be
+ * traced back to the rates it was converted with.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_published_exchange_rate_version_pair",
+        columnNames = {"rate_version", "from_currency", "to_currency"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishedExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rate_version", nullable = false)
+    private Long rateVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_currency", nullable = false)
+    private CurrencyCode fromCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_currency", nullable = false)
+    private CurrencyCode toCurrency;
+
+    @Column(nullable = false, precision = 19, scale = 10)
+    private BigDecimal rate;
+
+    // the first time an instance published the version
+    @Column(name = "published_at", nullable = false)
+    private LocalDateTime publishedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PublishedExchangeRate other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return PublishedExchangeRate.class.hashCode();
+    }
+
+}
@@ -20,4 +20,14 @@ public class Role {
 
     private String name;
 
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Role other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Role.class.hashCode();
+    }
+
 }
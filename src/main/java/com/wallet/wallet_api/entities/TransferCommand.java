@@ -0,0 +1,81 @@
+package com.wallet.wallet_api.entities;
+
+import com.wallet.wallet_api.entities.dto.TransferDTO;
+import com.wallet.wallet_api.entities.enums.TransferStatus;
+import com.wallet.wallet_api.entities.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transfer accepted by {@code POST /transfer} in asynchronous mode, waiting in the outbox until a worker applies
+ * it. Commands of the same sender wallet are applied in id order.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_transfer_command_status_id", columnList = "status, id"))
+@Data
+@NoArgsConstructor
+public class TransferCommand {
+
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long receiverId;
+
+    @Column(nullable = false)
+    private Long receiverWalletId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private TransferStatus status = TransferStatus.PENDING;
+
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime processedAt;
+
+    public TransferCommand(TransferDTO transfer) {
+        this.userId = transfer.getUserId();
+        this.walletId = transfer.getWalletId();
+        this.receiverId = transfer.getReceiverId();
+        this.receiverWalletId = transfer.getReceiverWalletId();
+        this.amount = transfer.getAmount();
+    }
+
+    public TransferDTO toTransfer() {
+        TransferDTO transfer = new TransferDTO();
+        transfer.setUserId(userId);
+        transfer.setWalletId(walletId);
+        transfer.setReceiverId(receiverId);
+        transfer.setReceiverWalletId(receiverWalletId);
+        transfer.setAmount(amount);
+        return transfer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof TransferCommand other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return TransferCommand.class.hashCode();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.wallet.wallet_api.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Locked by the transaction that applies the transfer commands of a worker number, so that only one instance at a
+ * time applies them; see {@code UserServiceImpl#processTransferCommands}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferWorkerLock {
+
+    @Id
+    private Integer worker;
+
+}
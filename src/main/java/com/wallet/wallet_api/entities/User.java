@@ -9,6 +9,7 @@ import lombok.Data;
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -16,11 +17,20 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = User.PROFILE_GRAPH, attributeNodes = {
+        @NamedAttributeNode("roles"),
+        @NamedAttributeNode("wallets")
+})
 @Data
 @NoArgsConstructor
 public class
 User {
 
+    /**
+     * Fetches the roles and the wallets with the user, but not the wallet entries: what a profile shows.
+     */
+    public static final String PROFILE_GRAPH = "User.profile";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @NonNull
@@ -57,9 +67,24 @@ User {
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    @ToString.Exclude
     private Set<Role> roles = new HashSet<>();
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
     private List<Wallet> wallets = new ArrayList<>();
 
+    // identity is the id alone, so that comparing or hashing a user does not load its collections,
+    // and a user that is not persisted yet only equals itself
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof User other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // the same for every user, so that it does not change when the id is assigned on persist
+        return User.class.hashCode();
+    }
+
 }
@@ -7,6 +7,8 @@ import jakarta.persistence.Id;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -24,16 +26,37 @@ public class Wallet {
 
     private BigDecimal balance;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
+    @ToString.Exclude
     private User user;
 
 
+    // served page by page by the entries endpoints only
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    @ToString.Exclude
     private List<Entry> entries = new ArrayList<>();
 
     @Enumerated(EnumType.STRING)
     private CurrencyCode currency;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
+    // by id, like the other entities: hashing a wallet must not load its entries
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Wallet other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Wallet.class.hashCode();
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.wallet.wallet_api.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The balance of a wallet after the last entry of a day. Only days with entries have a snapshot.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_wallet_balance_snapshot_wallet_date",
+        columnNames = {"wallet_id", "date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    @ToString.Exclude
+    private Wallet wallet;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "closing_balance", nullable = false)
+    private BigDecimal closingBalance;
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof WalletBalanceSnapshot other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return WalletBalanceSnapshot.class.hashCode();
+    }
+
+}
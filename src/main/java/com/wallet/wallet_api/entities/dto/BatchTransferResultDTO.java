@@ -0,0 +1,21 @@
+package com.wallet.wallet_api.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferResultDTO {
+
+    private int completed;
+
+    private int failed;
+
+    private List<TransferResultDTO> results = new ArrayList<>();
+
+}
@@ -0,0 +1,19 @@
+package com.wallet.wallet_api.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyBalanceDTO {
+
+    private LocalDate date;
+
+    private BigDecimal closingBalance;
+
+}
@@ -0,0 +1,18 @@
+package com.wallet.wallet_api.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntryImportResultDTO {
+
+    private long imported;
+
+    private long rejected;
+
+    private long rowsPerSecond;
+
+}
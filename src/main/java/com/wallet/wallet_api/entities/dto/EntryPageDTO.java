@@ -0,0 +1,20 @@
+package com.wallet.wallet_api.entities.dto;
+
+import com.wallet.wallet_api.entities.Entry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntryPageDTO {
+
+    private List<Entry> entries = new ArrayList<>();
+
+    private String nextCursor;
+
+}
@@ -1,7 +1,7 @@
 package com.wallet.wallet_api.entities.dto;
 
 import com.wallet.wallet_api.entities.Role;
-import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.User;
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -26,6 +26,19 @@ public class ResponseUserDTO {
 
     private Set<Role> roles = new HashSet<>();
 
-    private List<Wallet> wallets = new ArrayList<>();
+    private List<WalletDTO> wallets = new ArrayList<>();
+
+    public static ResponseUserDTO fromUser(User user) {
+        ResponseUserDTO userDTO = new ResponseUserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setEmail(user.getEmail());
+        userDTO.setUsername(user.getUsername());
+        userDTO.setDateOfBirth(user.getDateOfBirth());
+        userDTO.setFirstName(user.getFirstName());
+        userDTO.setLastName(user.getLastName());
+        userDTO.setWallets(user.getWallets().stream().map(WalletDTO::fromWallet).toList());
+        userDTO.setRoles(new HashSet<>(user.getRoles()));
+        return userDTO;
+    }
 
 }
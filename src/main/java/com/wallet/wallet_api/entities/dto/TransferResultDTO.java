@@ -0,0 +1,19 @@
+package com.wallet.wallet_api.entities.dto;
+
+import com.wallet.wallet_api.entities.enums.TransferStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferResultDTO {
+
+    private int index;
+
+    private TransferStatus status;
+
+    private String message;
+
+}
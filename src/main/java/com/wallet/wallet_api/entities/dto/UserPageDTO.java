@@ -0,0 +1,19 @@
+package com.wallet.wallet_api.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageDTO {
+
+    private List<ResponseUserDTO> users = new ArrayList<>();
+
+    private String nextCursor;
+
+}
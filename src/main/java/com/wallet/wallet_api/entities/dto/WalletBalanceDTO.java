@@ -0,0 +1,24 @@
+package com.wallet.wallet_api.entities.dto;
+
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletBalanceDTO {
+
+    private Long walletId;
+
+    private CurrencyCode currency;
+
+    private LocalDateTime at;
+
+    private BigDecimal balance;
+
+}
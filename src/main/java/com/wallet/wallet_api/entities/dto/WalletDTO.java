@@ -0,0 +1,26 @@
+package com.wallet.wallet_api.entities.dto;
+
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletDTO {
+
+    private Long id;
+
+    private BigDecimal balance;
+
+    private CurrencyCode currency;
+
+    public static WalletDTO fromWallet(Wallet wallet) {
+        return new WalletDTO(wallet.getId(), wallet.getBalance(), wallet.getCurrency());
+    }
+
+}
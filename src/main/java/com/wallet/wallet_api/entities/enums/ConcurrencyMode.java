@@ -0,0 +1,8 @@
+package com.wallet.wallet_api.entities.enums;
+
+public enum ConcurrencyMode {
+
+    OPTIMISTIC,
+    PESSIMISTIC,
+
+}
@@ -0,0 +1,9 @@
+package com.wallet.wallet_api.entities.enums;
+
+public enum TransferStatus {
+
+    PENDING,
+    COMPLETED,
+    FAILED,
+
+}
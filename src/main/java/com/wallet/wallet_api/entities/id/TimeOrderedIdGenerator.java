@@ -0,0 +1,131 @@
+package com.wallet.wallet_api.entities.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake-style id generator that needs no database round trip, so Hibernate can batch the inserts.
+ * <p>
+ * An id is {@code seconds since 2025-01-01 (32 bits) | node (5 bits) | sequence (16 bits)}. That keeps ids
+ * below 2^53, so they survive JSON clients that read numbers as doubles, and roughly time ordered, so InnoDB
+ * appends them to the end of the primary key. Each node can hand out 65,536 ids per second; past that it
+ * waits for the next second. Nodes sharing a database must be given distinct {@value #NODE_SETTING} values.
+ * <p>
+ * The last second and sequence are only kept in memory, so a restarted node must be {@link #seed seeded} with the
+ * newest id it issued before, which {@code IdNodeGuard} does at startup.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    public static final String NODE_SETTING = "wallet.id.node";
+
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 16;
+    public static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    public static final long MAX_CLOCK_BEHIND_SECONDS = 5;
+
+    private static final long EPOCH_SECOND = 1735689600L;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+
+    private long lastSecond = -1;
+
+    private long sequence;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        this(context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSetting(NODE_SETTING, value -> Long.valueOf(value.toString()), 0L));
+    }
+
+    public TimeOrderedIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException(NODE_SETTING + " must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return nextId();
+    }
+
+    /**
+     * Returns the next id of this node.
+     *
+     * @return a unique, time ordered id
+     */
+    public synchronized long nextId() {
+        long second = Math.max(currentSecond(), lastSecond);
+        if (second == lastSecond) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                second = awaitNextSecond(lastSecond);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastSecond = second;
+        return ((second - EPOCH_SECOND) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Continues after an id this node issued before it was restarted, so that it is not issued again.
+     * A clock slightly behind that id is waited out by {@link #nextId}.
+     *
+     * @param lastId the newest id of this node
+     * @throws IllegalArgumentException if the id belongs to another node
+     * @throws IllegalStateException if the clock is more than {@value #MAX_CLOCK_BEHIND_SECONDS}s behind the id
+     */
+    public synchronized void seed(long lastId) {
+        if (((lastId >> SEQUENCE_BITS) & MAX_NODE) != node) {
+            throw new IllegalArgumentException("Id " + lastId + " was not issued by node " + node);
+        }
+        long second = (lastId >> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_SECOND;
+        long behind = second - currentSecond();
+        if (behind > MAX_CLOCK_BEHIND_SECONDS) {
+            throw new IllegalStateException("The clock is " + behind + "s behind the newest id of node " + node);
+        }
+        long seededSequence = lastId & SEQUENCE_MASK;
+        if (second > lastSecond || second == lastSecond && seededSequence > sequence) {
+            lastSecond = second;
+            sequence = seededSequence;
+        }
+    }
+
+    /**
+     * Returns the smallest id any node can issue in a second.
+     *
+     * @param epochSecond the second, since 1970-01-01
+     * @return the smallest id of that second
+     */
+    public static long firstIdOf(long epochSecond) {
+        return (epochSecond - EPOCH_SECOND) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    /**
+     * Returns the current second, since 1970-01-01.
+     *
+     * @return the current second
+     */
+    public static long currentSecond() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static long awaitNextSecond(long lastSecond) {
+        long second = currentSecond();
+        while (second <= lastSecond) {
+            Thread.onSpinWait();
+            second = currentSecond();
+        }
+        return second;
+    }
+}
@@ -0,0 +1,26 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.EntryArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EntryArchiveSegmentRepository extends JpaRepository<EntryArchiveSegment, Long> {
+
+    @Query("SELECT s FROM EntryArchiveSegment s " +
+            "WHERE s.wallet.id = :walletId AND s.firstDate <= :endDate AND s.lastDate >= :startDate " +
+            "ORDER BY s.firstDate ASC, s.id ASC")
+    List<EntryArchiveSegment> findOverlapping(@Param("walletId") Long walletId,
+                                              @Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate);
+
+    List<EntryArchiveSegment> findByWalletIdOrderByFirstDateAscIdAsc(Long walletId);
+
+    List<EntryArchiveSegment> findByWalletIdOrderByFirstDateDescIdDesc(Long walletId);
+
+    List<EntryArchiveSegment> findByWalletIdAndFirstDateLessThanEqualOrderByFirstDateDescIdDesc(Long walletId,
+                                                                                        LocalDateTime date);
+}
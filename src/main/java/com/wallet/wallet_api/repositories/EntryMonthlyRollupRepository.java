@@ -0,0 +1,41 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.EntryMonthlyRollup;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface EntryMonthlyRollupRepository extends JpaRepository<EntryMonthlyRollup, Long> {
+
+    @Query("SELECT r.type AS type, r.operationType AS operationType, SUM(r.total) AS total " +
+            "FROM EntryMonthlyRollup r " +
+            "WHERE r.wallet.id = :walletId AND r.monthStart BETWEEN :firstMonth AND :lastMonth " +
+            "GROUP BY r.type, r.operationType")
+    List<EntryTotal> sumTotalsByTypeAndOperationType(@Param("walletId") Long walletId,
+                                                     @Param("firstMonth") LocalDate firstMonth,
+                                                     @Param("lastMonth") LocalDate lastMonth);
+
+    @Query("SELECT w.id FROM Wallet w " +
+            "WHERE EXISTS (SELECT 1 FROM Entry e WHERE e.wallet = w) " +
+            "AND NOT EXISTS (SELECT 1 FROM EntryMonthlyRollup r WHERE r.wallet = w) " +
+            "ORDER BY w.id")
+    List<Long> findWalletIdsWithoutRollups();
+
+    @Modifying
+    @Query("DELETE FROM EntryMonthlyRollup r WHERE r.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query(value = "INSERT INTO entry_monthly_rollup " +
+            "(wallet_id, month_start, type, operation_type, total, entry_count) " +
+            "SELECT e.wallet_id, CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE), e.type, e.operation_type, " +
+            "SUM(e.amount), COUNT(*) FROM entry e " +
+            "WHERE e.wallet_id = :walletId " +
+            "GROUP BY e.wallet_id, CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE), e.type, e.operation_type", nativeQuery = true)
+    int insertWalletRollups(@Param("walletId") Long walletId);
+}
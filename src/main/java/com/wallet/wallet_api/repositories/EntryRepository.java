@@ -0,0 +1,115 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.repositories.projections.DailyBalanceChange;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface EntryRepository extends JpaRepository<Entry, Long> {
+
+    String STREAM_FETCH_SIZE = "500";
+
+    String BALANCE_CHANGE = "SUM(CASE WHEN e.operationType = " +
+            "com.wallet.wallet_api.entities.enums.EntryOperationType.DEBIT THEN e.amount ELSE -e.amount END)";
+
+    @Query("SELECT e.type AS type, e.operationType AS operationType, SUM(e.amount) AS total " +
+            "FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY e.type, e.operationType")
+    List<EntryTotal> sumAmountsByTypeAndOperationType(@Param("walletId") Long walletId,
+                                                      @Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT e.type AS type, e.operationType AS operationType, SUM(e.amount) AS total " +
+            "FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date >= :startDate AND e.date < :endDate " +
+            "GROUP BY e.type, e.operationType")
+    List<EntryTotal> sumAmountsByTypeAndOperationTypeFromUntilBefore(@Param("walletId") Long walletId,
+                                                                     @Param("startDate") LocalDateTime startDate,
+                                                                     @Param("endDate") LocalDateTime endDate);
+
+    List<Entry> findByWalletIdAndDateBetweenOrderByDateAsc(Long walletId, LocalDateTime startDate, LocalDateTime endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date BETWEEN :startDate AND :endDate " +
+            "ORDER BY e.date ASC, e.id ASC")
+    Stream<Entry> streamByWalletIdAndDateBetween(@Param("walletId") Long walletId,
+                                                 @Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date < :cutoff " +
+            "ORDER BY e.date ASC, e.id ASC")
+    Stream<Entry> streamByWalletIdAndDateBefore(@Param("walletId") Long walletId,
+                                                @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT DISTINCT e.wallet.id FROM Entry e WHERE e.date < :cutoff ORDER BY e.wallet.id")
+    List<Long> findWalletIdsWithEntriesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Entry e WHERE e.wallet.id = :walletId AND e.date < :cutoff")
+    int deleteByWalletIdAndDateBefore(@Param("walletId") Long walletId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT e FROM Entry e " +
+            "WHERE e.wallet.id = :walletId " +
+            "AND (:type IS NULL OR e.type = :type) " +
+            "AND (:operationType IS NULL OR e.operationType = :operationType) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<Entry> findLatestPage(@Param("walletId") Long walletId,
+                               @Param("type") EntryType type,
+                               @Param("operationType") EntryOperationType operationType,
+                               Pageable pageable);
+
+    @Query("SELECT e FROM Entry e " +
+            "WHERE e.wallet.id = :walletId " +
+            "AND (:type IS NULL OR e.type = :type) " +
+            "AND (:operationType IS NULL OR e.operationType = :operationType) " +
+            "AND (e.date < :cursorDate OR (e.date = :cursorDate AND e.id < :cursorId)) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<Entry> findPageBefore(@Param("walletId") Long walletId,
+                               @Param("type") EntryType type,
+                               @Param("operationType") EntryOperationType operationType,
+                               @Param("cursorDate") LocalDateTime cursorDate,
+                               @Param("cursorId") Long cursorId,
+                               Pageable pageable);
+
+    @Query("SELECT COALESCE(" + BALANCE_CHANGE + ", 0) FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date BETWEEN :startDate AND :endDate")
+    BigDecimal sumBalanceChangeBetween(@Param("walletId") Long walletId,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COALESCE(" + BALANCE_CHANGE + ", 0) FROM Entry e " +
+            "WHERE e.wallet.id = :walletId AND e.date >= :startDate AND e.date < :endDate")
+    BigDecimal sumBalanceChangeFromUntilBefore(@Param("walletId") Long walletId,
+                                               @Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT CAST(e.date AS LocalDate) AS date, " + BALANCE_CHANGE + " AS change FROM Entry e " +
+            "WHERE e.wallet.id = :walletId " +
+            "GROUP BY CAST(e.date AS LocalDate) " +
+            "ORDER BY CAST(e.date AS LocalDate) DESC")
+    List<DailyBalanceChange> sumBalanceChangeByDateDesc(@Param("walletId") Long walletId);
+}
@@ -0,0 +1,30 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.IdNodeLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdNodeLeaseRepository extends JpaRepository<IdNodeLease, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM IdNodeLease l WHERE l.node = :node")
+    Optional<IdNodeLease> findByNodeForUpdate(@Param("node") Integer node);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdNodeLease l SET l.renewedAt = :renewedAt WHERE l.node = :node AND l.owner = :owner")
+    int renew(@Param("node") Integer node, @Param("owner") String owner, @Param("renewedAt") LocalDateTime renewedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdNodeLease l WHERE l.node = :node AND l.owner = :owner")
+    int release(@Param("node") Integer node, @Param("owner") String owner);
+}
@@ -0,0 +1,52 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // read-write, so that with a read replica the lookup still sees the records that were just stored
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String idempotencyKey);
+
+    // a plain insert rather than save(), so that a key claimed by another instance fails with a duplicate key error
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_record (idempotency_key, request_hash, status, created_at) " +
+            "VALUES (:idempotencyKey, :requestHash, 'IN_PROGRESS', :createdAt)", nativeQuery = true)
+    int claim(@Param("idempotencyKey") String idempotencyKey, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.wallet.wallet_api.entities.enums.IdempotencyStatus.COMPLETED, " +
+            "r.statusCode = :statusCode, r.responseBody = :responseBody " +
+            "WHERE r.idempotencyKey = :idempotencyKey " +
+            "AND r.status = com.wallet.wallet_api.entities.enums.IdempotencyStatus.IN_PROGRESS")
+    int complete(@Param("idempotencyKey") String idempotencyKey, @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey " +
+            "AND r.status = com.wallet.wallet_api.entities.enums.IdempotencyStatus.IN_PROGRESS")
+    int release(@Param("idempotencyKey") String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey AND r.createdAt < :cutoff")
+    int deleteExpired(@Param("idempotencyKey") String idempotencyKey, @Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
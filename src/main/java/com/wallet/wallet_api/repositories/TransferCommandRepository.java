@@ -0,0 +1,41 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.TransferCommand;
+import com.wallet.wallet_api.entities.enums.TransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TransferCommandRepository extends JpaRepository<TransferCommand, Long> {
+
+    // read-write, so that with a read replica the status of a command that was just accepted is found
+    @Override
+    @Transactional
+    Optional<TransferCommand> findById(Long id);
+
+    // the oldest pending commands of the sender wallets that belong to one worker, read while holding its TransferWorkerLock
+    @Query("SELECT c FROM TransferCommand c WHERE c.status = com.wallet.wallet_api.entities.enums.TransferStatus.PENDING " +
+            "AND MOD(c.walletId, :workers) = :worker ORDER BY c.id")
+    List<TransferCommand> findPending(@Param("worker") int worker, @Param("workers") int workers, Pageable limit);
+
+    // only pending commands, so a command applied concurrently elsewhere is not counted
+    @Transactional
+    @Modifying
+    @Query("UPDATE TransferCommand c SET c.status = :status, c.message = :message, c.processedAt = :processedAt " +
+            "WHERE c.id IN :ids AND c.status = com.wallet.wallet_api.entities.enums.TransferStatus.PENDING")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("status") TransferStatus status,
+                      @Param("message") String message, @Param("processedAt") LocalDateTime processedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TransferCommand c WHERE c.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.TransferWorkerLock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface TransferWorkerLockRepository extends JpaRepository<TransferWorkerLock, Integer> {
+
+    // FOR UPDATE SKIP LOCKED (a lock timeout of -2): empty while another transaction holds the worker's row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT l FROM TransferWorkerLock l WHERE l.worker = :worker")
+    Optional<TransferWorkerLock> findByWorkerForUpdateSkipLocked(@Param("worker") Integer worker);
+}
@@ -2,17 +2,41 @@ package com.wallet.wallet_api.repositories;
 
 import com.wallet.wallet_api.entities.User;
 import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.repositories.projections.UserHeader;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-@RepositoryRestResource
+@RepositoryRestResource(excerptProjection = UserHeader.class)
 public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u.wallets FROM User u WHERE u.id = :userId")
     List<Wallet> findWalletsByUserId(@Param("userId") Long userId);
-}
 
+    @RestResource(exported = false)
+    @EntityGraph(User.PROFILE_GRAPH)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findProfileById(@Param("id") Long id);
+
+    @RestResource(exported = false)
+    @Query("SELECT u FROM User u WHERE :afterId IS NULL OR u.id > :afterId ORDER BY u.id")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    // the roles and the wallets are fetched by separate queries, as fetching two collections at once
+    // would multiply their rows
+    @RestResource(exported = false)
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u IN :users")
+    List<User> fetchRoles(@Param("users") Collection<User> users);
+
+    @RestResource(exported = false)
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.wallets WHERE u IN :users")
+    List<User> fetchWallets(@Param("users") Collection<User> users);
+}
@@ -0,0 +1,45 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.WalletBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, Long> {
+
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(Long walletId, LocalDate date);
+
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndDateGreaterThanOrderByDateAsc(Long walletId, LocalDate date);
+
+    List<WalletBalanceSnapshot> findByWalletIdAndDateBetweenOrderByDateAsc(Long walletId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT w.id FROM Wallet w " +
+            "WHERE EXISTS (SELECT 1 FROM Entry e WHERE e.wallet = w) " +
+            "AND NOT EXISTS (SELECT 1 FROM WalletBalanceSnapshot s WHERE s.wallet = w) " +
+            "ORDER BY w.id")
+    List<Long> findWalletIdsWithoutSnapshots();
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceSnapshot s WHERE s.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query(value = "INSERT INTO wallet_balance_snapshot (wallet_id, date, closing_balance) " +
+            "SELECT w.id, :date, w.balance FROM wallet w WHERE w.id IN (:walletIds) ORDER BY w.id " +
+            "ON DUPLICATE KEY UPDATE closing_balance = VALUES(closing_balance)", nativeQuery = true)
+    int upsertClosingBalances(@Param("walletIds") Collection<Long> walletIds, @Param("date") LocalDate date);
+
+    @Modifying
+    @Query(value = "INSERT INTO wallet_balance_snapshot (wallet_id, date, closing_balance) " +
+            "SELECT w.id, :date, w.balance - :laterChange FROM wallet w WHERE w.id = :walletId " +
+            "ON DUPLICATE KEY UPDATE closing_balance = VALUES(closing_balance)", nativeQuery = true)
+    int upsertClosingBalance(@Param("walletId") Long walletId, @Param("date") LocalDate date,
+                             @Param("laterChange") BigDecimal laterChange);
+}
@@ -0,0 +1,52 @@
+package com.wallet.wallet_api.repositories;
+
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.repositories.projections.WalletView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    // archived entries are all older than the ones left in the entry table
+    String WALLET_VIEW = "SELECT w.id AS id, w.currency AS currency, w.balance AS balance, " +
+            "COUNT(e.id) + COALESCE((SELECT SUM(s.entryCount) FROM EntryArchiveSegment s WHERE s.wallet = w), 0) AS entryCount, " +
+            "COALESCE(MAX(e.date), (SELECT MAX(s.lastDate) FROM EntryArchiveSegment s WHERE s.wallet = w)) AS lastActivity " +
+            "FROM Wallet w LEFT JOIN w.entries e ";
+
+    @Query(WALLET_VIEW + "WHERE w.user.id = :userId GROUP BY w.id, w.currency, w.balance ORDER BY w.id")
+    List<WalletView> findViewsByUserId(@Param("userId") Long userId);
+
+    @Query(WALLET_VIEW + "WHERE w.id = :id AND w.user.id = :userId GROUP BY w.id, w.currency, w.balance")
+    Optional<WalletView> findViewByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id AND w.user.id = :userId")
+    Optional<Wallet> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id AND w.user.id = :userId")
+    Optional<Wallet> findByIdAndUserIdForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllByIdInOrderById(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllByIdInOrderByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1 WHERE w.id = :id")
+    int increaseBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = w.version + 1 WHERE w.id = :id AND w.balance >= :amount")
+    int decreaseBalanceIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,12 @@
+package com.wallet.wallet_api.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailyBalanceChange {
+
+    LocalDate getDate();
+
+    BigDecimal getChange();
+
+}
@@ -0,0 +1,16 @@
+package com.wallet.wallet_api.repositories.projections;
+
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+
+import java.math.BigDecimal;
+
+public interface EntryTotal {
+
+    EntryType getType();
+
+    EntryOperationType getOperationType();
+
+    BigDecimal getTotal();
+
+}
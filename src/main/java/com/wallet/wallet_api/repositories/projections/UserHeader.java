@@ -0,0 +1,25 @@
+package com.wallet.wallet_api.repositories.projections;
+
+import com.wallet.wallet_api.entities.User;
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * The excerpt of a user embedded in the Spring Data REST resources: the header fields only, so that listing users
+ * loads neither their roles nor their wallets.
+ */
+@Projection(name = UserHeader.NAME, types = User.class)
+public interface UserHeader {
+
+    String NAME = "header";
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+}
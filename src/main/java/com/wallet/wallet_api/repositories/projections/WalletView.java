@@ -0,0 +1,24 @@
+package com.wallet.wallet_api.repositories.projections;
+
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A wallet as listed to its owner: its balance and how many entries it has, without the entries themselves.
+ * The entry count and the last activity include the archived entries.
+ */
+public interface WalletView {
+
+    Long getId();
+
+    CurrencyCode getCurrency();
+
+    BigDecimal getBalance();
+
+    long getEntryCount();
+
+    LocalDateTime getLastActivity();
+
+}
@@ -1,43 +1,88 @@
 package com.wallet.wallet_api.restcontrollers;
 
 import com.opencsv.CSVWriter;
-import com.wallet.wallet_api.entities.Entry;
-import com.wallet.wallet_api.entities.User;
+import com.wallet.wallet_api.entities.TransferCommand;
 import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.dto.BatchTransferResultDTO;
+import com.wallet.wallet_api.entities.dto.DailyBalanceDTO;
 import com.wallet.wallet_api.entities.dto.DepositWithdrawalDTO;
+import com.wallet.wallet_api.entities.dto.EntryImportResultDTO;
+import com.wallet.wallet_api.entities.dto.EntryPageDTO;
 import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
 import com.wallet.wallet_api.entities.dto.TransferDTO;
 import com.wallet.wallet_api.entities.dto.UserDTO;
+import com.wallet.wallet_api.entities.dto.UserPageDTO;
+import com.wallet.wallet_api.entities.dto.WalletBalanceDTO;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
 import com.wallet.wallet_api.exceptions.CustomException;
 import com.wallet.wallet_api.exceptions.ResourceNotFoundException;
+import com.wallet.wallet_api.repositories.projections.WalletView;
 import com.wallet.wallet_api.entities.EntriesSummary;
+import com.wallet.wallet_api.services.IdempotencyService;
+import com.wallet.wallet_api.services.TransferRetryExecutor;
 import com.wallet.wallet_api.services.UserService;
+import com.wallet.wallet_api.services.WalletBalanceSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final TransferRetryExecutor transferRetryExecutor;
+    private final IdempotencyService idempotencyService;
+    private final WalletBalanceSnapshotService walletBalanceSnapshotService;
+    private final boolean asyncTransfers;
     public static final String AN_UNEXPECTED_ERROR_OCCURRED = "An unexpected error occurred";
+    public static final String TRANSFER_CONFLICT = "The wallets are busy, please retry the transfer";
+    public static final String TRANSFER_ACCEPTED = "Transfer accepted, status at ";
+    public static final String TRANSFER_STATUS_PATH = "/api/users/transfer/";
 
     public static final String T_00_00_00 = "T00:00:00";
     public static final String T_23_59_59 = "T23:59:59";
 
+    private static final String[] CSV_HEADER =
+            {"ID", "Amount", "Type", "Operation Type", "Date", "Wallet ID", "From Currency", "To Currency"};
+
+    private static final String[] IMPORT_ERRORS_CSV_HEADER =
+            {"Row", "User ID", "Wallet ID", "Amount", "Operation Type", "Error"};
+    public static final String IMPORTED_ROWS_HEADER = "X-Imported-Rows";
+    public static final String REJECTED_ROWS_HEADER = "X-Rejected-Rows";
+    public static final String ROWS_PER_SECOND_HEADER = "X-Rows-Per-Second";
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, TransferRetryExecutor transferRetryExecutor,
+                          IdempotencyService idempotencyService, WalletBalanceSnapshotService walletBalanceSnapshotService,
+                          @Value("${wallet.transfer.async.enabled:false}") boolean asyncTransfers) {
         this.userService = userService;
+        this.transferRetryExecutor = transferRetryExecutor;
+        this.idempotencyService = idempotencyService;
+        this.walletBalanceSnapshotService = walletBalanceSnapshotService;
+        this.asyncTransfers = asyncTransfers;
     }
 
     /**
@@ -50,9 +95,7 @@ public class UserController {
     @GetMapping("/{id}")
     public ResponseEntity<ResponseUserDTO> getUserById(@PathVariable Long id) {
         try {
-            User user = userService.getUserById(id);
-
-            ResponseUserDTO userDTO = mapUserToResponseUserDTO(user);
+            ResponseUserDTO userDTO = userService.getUserProfile(id);
 
             return new ResponseEntity<>(userDTO, HttpStatus.OK);
         } catch (ResourceNotFoundException ex) {
@@ -61,17 +104,21 @@ public class UserController {
     }
 
     /**
-     * Retrieves all users.
+     * Retrieves a page of users ordered by ID, with their wallet balances but not the wallet entries.
      *
-     * @return the response entity containing the list of users
+     * @param cursor the cursor of the page, as returned with the previous page
+     * @param size   the maximum number of users in the page
+     * @return the response entity containing the page of users and the next cursor
+     * @throws IllegalArgumentException if the page size or the cursor is invalid
      */
     @GetMapping
-    public ResponseEntity<List<ResponseUserDTO>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        List<ResponseUserDTO> responseUserDTOS = users.stream()
-                .map(this::mapUserToResponseUserDTO)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(responseUserDTOS, HttpStatus.OK);
+    public ResponseEntity<UserPageDTO> getAllUsers(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(cursor, size));
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
@@ -92,16 +139,16 @@ public class UserController {
     }
 
     /**
-     * Retrieves the wallets of a user by their ID.
+     * Retrieves the wallets of a user by their ID, without their entries.
      *
      * @param userId the ID of the user
-     * @return the response entity containing the list of wallets
+     * @return the response entity containing the list of wallets with their entry counts and last activity
      * @throws ResourceNotFoundException if the user or wallets are not found
      */
     @GetMapping("/{userId}/wallets")
-    public ResponseEntity<List<Wallet>> getWalletsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<WalletView>> getWalletsByUserId(@PathVariable Long userId) {
         try {
-            List<Wallet> wallets = userService.getWallets(userId);
+            List<WalletView> wallets = userService.getWallets(userId);
             return ResponseEntity.ok(wallets);
         } catch (ResourceNotFoundException ex) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -109,17 +156,17 @@ public class UserController {
     }
 
     /**
-     * Retrieves a wallet by user ID and wallet ID.
+     * Retrieves a wallet by user ID and wallet ID, without its entries.
      *
      * @param userId   the ID of the user
      * @param walletId the ID of the wallet
-     * @return the response entity containing the wallet details
+     * @return the response entity containing the wallet details with its entry count and last activity
      * @throws ResourceNotFoundException if the user or wallet is not found
      */
     @GetMapping("/{userId}/wallets/{walletId}")
-    public ResponseEntity<Wallet> getWalletByUserIdAndWalletId(@PathVariable Long userId, @PathVariable Long walletId) {
+    public ResponseEntity<WalletView> getWalletByUserIdAndWalletId(@PathVariable Long userId, @PathVariable Long walletId) {
         try {
-            Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
+            WalletView wallet = userService.getWalletView(userId, walletId);
             return ResponseEntity.ok(wallet);
         } catch (ResourceNotFoundException ex) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -127,21 +174,34 @@ public class UserController {
     }
 
     /**
-     * Retrieves entries of a wallet by user ID and wallet ID.
+     * Retrieves a page of entries of a wallet by user ID and wallet ID, newest first.
      *
-     * @param userId   the ID of the user
-     * @param walletId the ID of the wallet
-     * @return the response entity containing the list of entries
+     * @param userId        the ID of the user
+     * @param walletId      the ID of the wallet
+     * @param cursor        the cursor of the page, as returned with the previous page
+     * @param size          the maximum number of entries in the page
+     * @param type          the entry type to filter by
+     * @param operationType the operation type to filter by
+     * @return the response entity containing the page of entries and the next cursor
      * @throws ResourceNotFoundException if the user or wallet is not found
+     * @throws IllegalArgumentException  if the page size or the cursor is invalid
      */
     @GetMapping("/{userId}/wallets/{walletId}/entries")
-    public ResponseEntity<List<Entry>> getEntriesByUserIdAndWalletId(@PathVariable Long userId, @PathVariable Long walletId) {
+    public ResponseEntity<EntryPageDTO> getEntriesByUserIdAndWalletId(
+            @PathVariable Long userId,
+            @PathVariable Long walletId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) EntryType type,
+            @RequestParam(required = false) EntryOperationType operationType) {
         try {
             Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
-            List<Entry> entries = wallet.getEntries();
-            return ResponseEntity.ok(entries);
+            EntryPageDTO page = userService.getEntriesPage(wallet, cursor, size, type, operationType);
+            return ResponseEntity.ok(page);
         } catch (ResourceNotFoundException ex) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -170,6 +230,7 @@ public class UserController {
      * @param walletId  the ID of the wallet
      * @param startDate the start date of the range
      * @param endDate   the end date of the range
+     * @param includeEntries whether the entries within the range should be returned with the totals
      * @return the response entity containing the entry summary
      * @throws ResourceNotFoundException if the user or wallet is not found
      * @throws IllegalArgumentException  if the date range is invalid
@@ -179,13 +240,14 @@ public class UserController {
             @PathVariable Long userId,
             @PathVariable Long walletId,
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "false") boolean includeEntries) {
         try {
             LocalDateTime y = convertStringToDate(startDate, T_00_00_00);
             LocalDateTime b = convertStringToDate(endDate, T_23_59_59);
 
             Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
-            EntriesSummary summary = userService.calculateEntrySummary(wallet, y, b);
+            EntriesSummary summary = userService.calculateEntrySummary(wallet, y, b, includeEntries);
             return ResponseEntity.ok(summary);
         } catch (ResourceNotFoundException ex) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -194,48 +256,108 @@ public class UserController {
         }
     }
 
+    /**
+     * Retrieves the balance of a wallet at an instant.
+     *
+     * @param userId   the ID of the user
+     * @param walletId the ID of the wallet
+     * @param at       the instant, e.g. {@code 2024-06-10T14:30:00}; defaults to now
+     * @return the response entity containing the balance, including the entries made at the instant
+     * @throws ResourceNotFoundException if the user or wallet is not found
+     */
+    @GetMapping("/{userId}/wallets/{walletId}/balance")
+    public ResponseEntity<WalletBalanceDTO> getBalanceAt(@PathVariable Long userId,
+                                                         @PathVariable Long walletId,
+                                                         @RequestParam(required = false) String at) {
+        try {
+            LocalDateTime instant = at == null ? LocalDateTime.now() : LocalDateTime.parse(at);
+
+            Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
+            BigDecimal balance = walletBalanceSnapshotService.getBalanceAt(wallet, instant);
+            return ResponseEntity.ok(new WalletBalanceDTO(wallet.getId(), wallet.getCurrency(), instant, balance));
+        } catch (ResourceNotFoundException ex) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (DateTimeParseException ex) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retrieves the closing balance of a wallet for every day within a date range.
+     *
+     * @param userId    the ID of the user
+     * @param walletId  the ID of the wallet
+     * @param startDate the first day of the range
+     * @param endDate   the last day of the range
+     * @return the response entity containing one closing balance per day
+     * @throws ResourceNotFoundException if the user or wallet is not found
+     * @throws IllegalArgumentException  if the date range is invalid or too long
+     */
+    @GetMapping("/{userId}/wallets/{walletId}/balance-history")
+    public ResponseEntity<List<DailyBalanceDTO>> getBalanceHistory(@PathVariable Long userId,
+                                                                   @PathVariable Long walletId,
+                                                                   @RequestParam String startDate,
+                                                                   @RequestParam String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+
+            Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
+            return ResponseEntity.ok(walletBalanceSnapshotService.getBalanceHistory(wallet, start, end));
+        } catch (ResourceNotFoundException ex) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Retrieves entries for a wallet within a date range as a CSV file.
+     * The file is streamed to the client while the entries are read from the database.
      *
      * @param userId    the ID of the user
      * @param walletId  the ID of the wallet
      * @param startDate the start date of the range
      * @param endDate   the end date of the range
-     * @return the response entity containing the CSV data
-     * @throws IOException               if an I/O error occurs during CSV generation
+     * @return the response entity streaming the CSV data
      * @throws ResourceNotFoundException if the user or wallet is not found
      * @throws CustomException           if an unexpected error occurs
      */
     @GetMapping("/entries/csv")
-    public ResponseEntity<String> getEntriesAsCsv(@RequestParam Long userId,
-                                                  @RequestParam Long walletId,
-                                                  @RequestParam String startDate,
-                                                  @RequestParam String endDate) {
+    public ResponseEntity<StreamingResponseBody> getEntriesAsCsv(@RequestParam Long userId,
+                                                                 @RequestParam Long walletId,
+                                                                 @RequestParam String startDate,
+                                                                 @RequestParam String endDate) {
         try {
             LocalDateTime start = convertStringToDate(startDate, T_00_00_00);
             LocalDateTime end = convertStringToDate(endDate, T_23_59_59);
+            if (start.isAfter(end)) {
+                throw new CustomException(UserService.START_DATE_AFTER_END_DATE);
+            }
 
             Wallet wallet = userService.getWalletByUserIdAndWalletId(userId, walletId);
-            List<Entry> entries = userService.getEntriesForCSV(wallet, start, end);
 
-            StringWriter writer = new StringWriter();
-            CSVWriter csvWriter = new CSVWriter(writer);
-            csvWriter.writeNext(new String[]{"ID", "Amount", "Type", "Operation Type", "Date", "Wallet ID", "From Currency", "To Currency"});
+            StreamingResponseBody body = outputStream -> {
+                CSVWriter csvWriter = new CSVWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                csvWriter.writeNext(CSV_HEADER);
+                csvWriter.flush();
 
-            for (Entry entry : entries) {
-                csvWriter.writeNext(new String[]{
+                userService.streamEntriesForCSV(wallet, start, end, entry -> csvWriter.writeNext(new String[]{
                         entry.getId().toString(),
                         entry.getAmount().toString(),
                         entry.getType().toString(),
                         entry.getOperationType().toString(),
                         entry.getDate().toString(),
-                        entry.getWallet().getId().toString(),
+                        wallet.getId().toString(),
                         entry.getFromCurrency(),
                         entry.getToCurrency()
-                });
-            }
+                }));
 
-            csvWriter.close();
+                csvWriter.flush();
+                if (csvWriter.checkError()) {
+                    throw new IOException("Failed to generate CSV file");
+                }
+            };
 
             HttpHeaders headers = new HttpHeaders();
             headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=entries.csv");
@@ -243,9 +365,7 @@ public class UserController {
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(writer.toString());
-        } catch (IOException ex) {
-            throw new CustomException("Failed to generate CSV file");
+                    .body(body);
         } catch (ResourceNotFoundException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -253,57 +373,163 @@ public class UserController {
         }
     }
 
+    /**
+     * Imports deposits and withdrawals from a CSV file sent as the request body.
+     * <p>
+     * The body is parsed as it is read and the rejected rows are spooled to a temporary file, which is returned
+     * as the response body; the import counts and throughput are returned in headers.
+     *
+     * @param csv the CSV content with the header {@code User ID,Wallet ID,Amount,Operation Type}
+     * @return the response entity containing the CSV of rejected rows, or {@code 400 Bad Request} if the header is invalid
+     * @throws CustomException if an unexpected error occurs
+     */
+    @PostMapping(value = "/entries/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> importEntriesFromCsv(InputStream csv) {
+        Path errorFile = null;
+        try {
+            errorFile = Files.createTempFile("entry-import-errors", ".csv");
+            EntryImportResultDTO result;
+            try (Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
+                 CSVWriter errorWriter = new CSVWriter(Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8))) {
+                errorWriter.writeNext(IMPORT_ERRORS_CSV_HEADER);
+                result = userService.importEntriesFromCSV(reader, errorWriter::writeNext);
+            }
+
+            Path errors = errorFile;
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    Files.copy(errors, outputStream);
+                } finally {
+                    Files.deleteIfExists(errors);
+                }
+            };
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=entry-import-errors.csv");
+            headers.setContentType(MediaType.TEXT_PLAIN);
+            headers.set(IMPORTED_ROWS_HEADER, String.valueOf(result.getImported()));
+            headers.set(REJECTED_ROWS_HEADER, String.valueOf(result.getRejected()));
+            headers.set(ROWS_PER_SECOND_HEADER, String.valueOf(result.getRowsPerSecond()));
+
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(body);
+        } catch (IllegalArgumentException ex) {
+            deleteQuietly(errorFile);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            deleteQuietly(errorFile);
+            throw new CustomException(AN_UNEXPECTED_ERROR_OCCURRED);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // the file lives in the temporary directory and is not worth failing the request for
+        }
+    }
+
     /**
      * Transfers an amount from one wallet to another.
+     * <p>
+     * With {@code wallet.transfer.async.enabled} the transfer is only validated and queued: the response is
+     * {@code 202 Accepted} with the URL of its status in the {@code Location} header and the body, and the
+     * transfer is applied later by the transfer workers.
      *
+     * @param idempotencyKey optional key that makes retries of the same transfer replay the first result
      * @param transferDTO the data transfer object containing transfer details
-     * @return the response entity indicating the result of the operation
+     * @return the response entity indicating the result of the operation, {@code 409 Conflict} if the transfer
+     * kept colliding with concurrent updates after all retries
      * @throws IllegalArgumentException if the transfer data is invalid
      * @throws CustomException          if an unexpected error occurs
      */
     @PostMapping("/transfer")
-    public ResponseEntity<String> transfer(@RequestBody TransferDTO transferDTO) {
+    public ResponseEntity<String> transfer(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody TransferDTO transferDTO) {
+        return idempotencyService.execute(idempotencyKey, "transfer", transferDTO, () -> {
+            try {
+                if (asyncTransfers) {
+                    String statusUrl = TRANSFER_STATUS_PATH + userService.submitTransfer(transferDTO).getId();
+                    return ResponseEntity.accepted().location(URI.create(statusUrl)).body(TRANSFER_ACCEPTED + statusUrl);
+                }
+                transferRetryExecutor.execute(() -> userService.transfer(transferDTO));
+                return ResponseEntity.ok("Transfer successful");
+            } catch (IllegalArgumentException ex) {
+                return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+            } catch (ConcurrencyFailureException ex) {
+                return new ResponseEntity<>(TRANSFER_CONFLICT, HttpStatus.CONFLICT);
+            } catch (Exception ex) {
+                return new ResponseEntity<>(AN_UNEXPECTED_ERROR_OCCURRED, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    /**
+     * Retrieves a transfer accepted for asynchronous execution, with its status: {@code PENDING} until a transfer
+     * worker applied it, then {@code COMPLETED} or {@code FAILED} with the reason.
+     *
+     * @param transferId the ID of the transfer, as returned when it was accepted
+     * @return the response entity containing the transfer and its status
+     * @throws ResourceNotFoundException if the transfer is not found
+     */
+    @GetMapping("/transfer/{transferId}")
+    public ResponseEntity<TransferCommand> getTransfer(@PathVariable Long transferId) {
         try {
-            userService.transfer(transferDTO);
-            return ResponseEntity.ok("Transfer successful");
+            return ResponseEntity.ok(userService.getTransferCommand(transferId));
+        } catch (ResourceNotFoundException ex) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Applies a batch of transfers and reports the outcome of each one.
+     *
+     * @param transfers the transfers to apply, in order
+     * @return the response entity containing the per-transfer results, or {@code 400 Bad Request} if the batch
+     * is empty or too large
+     * @throws CustomException if an unexpected error occurs
+     */
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResultDTO> transferBatch(@RequestBody List<TransferDTO> transfers) {
+        try {
+            return ResponseEntity.ok(userService.transferBatch(transfers));
         } catch (IllegalArgumentException ex) {
-            return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception ex) {
-            return new ResponseEntity<>(AN_UNEXPECTED_ERROR_OCCURRED, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     /**
      * Handles deposit or withdrawal operations.
      *
+     * @param idempotencyKey optional key that makes retries of the same entry replay the first result
      * @param depositWithdrawalDTO the data transfer object containing deposit or withdrawal details
      * @return the response entity indicating the result of the operation
      * @throws IllegalArgumentException if the deposit or withdrawal data is invalid
      * @throws CustomException          if an unexpected error occurs
      */
     @PostMapping("/entry")
-    public ResponseEntity<String> depositOrWithdrawal(@RequestBody DepositWithdrawalDTO depositWithdrawalDTO) {
-        try {
-            userService.depositOrWithdrawal(depositWithdrawalDTO);
-            return ResponseEntity.ok("Entry is successful");
-        } catch (IllegalArgumentException ex) {
-            return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
-        } catch (Exception ex) {
-            return new ResponseEntity<>(AN_UNEXPECTED_ERROR_OCCURRED, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-    }
-
-    private ResponseUserDTO mapUserToResponseUserDTO(User user) {
-        ResponseUserDTO userDTO = new ResponseUserDTO();
-        userDTO.setId(user.getId());
-        userDTO.setEmail(user.getEmail());
-        userDTO.setUsername(user.getUsername());
-        userDTO.setDateOfBirth(user.getDateOfBirth());
-        userDTO.setFirstName(user.getFirstName());
-        userDTO.setLastName(user.getLastName());
-        userDTO.setWallets(user.getWallets());
-        userDTO.setRoles(user.getRoles());
-        return userDTO;
+    public ResponseEntity<String> depositOrWithdrawal(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody DepositWithdrawalDTO depositWithdrawalDTO) {
+        return idempotencyService.execute(idempotencyKey, "entry", depositWithdrawalDTO, () -> {
+            try {
+                userService.depositOrWithdrawal(depositWithdrawalDTO);
+                return ResponseEntity.ok("Entry is successful");
+            } catch (IllegalArgumentException ex) {
+                return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+            } catch (Exception ex) {
+                return new ResponseEntity<>(AN_UNEXPECTED_ERROR_OCCURRED, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
     }
 
     private static LocalDateTime convertStringToDate(String startDate, String exactTime) {
@@ -0,0 +1,481 @@
+package com.wallet.wallet_api.services;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.EntryArchiveSegment;
+import com.wallet.wallet_api.entities.Money;
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.repositories.EntryArchiveSegmentRepository;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves entries older than a horizon out of the entry table into compressed segment files, and reads them back
+ * for the queries that cover archived dates.
+ * <p>
+ * Each archival run writes, per wallet, the wallet's entries older than the cutoff in date and id order into gzip'd
+ * CSV segments of at most {@code wallet.archive.max-segment-entries} entries. The segments are synced to disk before
+ * their index rows are inserted and the archived entries are deleted, all in one transaction, so an entry is always
+ * either in the table or in an indexed segment. A run that fails halfway leaves at most unindexed files, which are
+ * ignored. Segments are never rewritten, and the segments of a wallet do not overlap, so a date range is read from
+ * the few segments whose dates it overlaps and a page from the few segments before its position.
+ * <p>
+ * Daily balance snapshots and monthly rollups are kept for archived dates, so balances and long-range summaries
+ * only read segments for their partial edges.
+ */
+@Service
+public class EntryArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryArchiveService.class);
+
+    private static final String[] SEGMENT_HEADER =
+            {"ID", "Amount", "Type", "Operation Type", "Date", "From Currency", "To Currency",
+                    "Rate Version"};
+    private static final String SEGMENT_SUFFIX = ".csv.gz";
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+    private static final EntryOperationType[] OPERATION_TYPES = EntryOperationType.values();
+    private static final String FAILED_TO_ARCHIVE_ENTRIES = "Failed to archive entries";
+    private static final String FAILED_TO_READ_ARCHIVED_ENTRIES = "Failed to read archived entries";
+    private static final String MAX_SEGMENT_ENTRIES_NOT_POSITIVE = "wallet.archive.max-segment-entries must be positive";
+
+    private final EntryArchiveSegmentRepository entryArchiveSegmentRepository;
+
+    private final EntryRepository entryRepository;
+
+    private final WalletRepository walletRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final Duration horizon;
+
+    private final Path directory;
+
+    private final int maxSegmentEntries;
+
+    @Autowired
+    public EntryArchiveService(EntryArchiveSegmentRepository entryArchiveSegmentRepository,
+                               EntryRepository entryRepository, WalletRepository walletRepository,
+                               EntityManager entityManager, TransactionTemplate transactionTemplate,
+                               @Value("${wallet.archive.enabled:false}") boolean enabled,
+                               @Value("${wallet.archive.horizon:365d}") Duration horizon,
+                               @Value("${wallet.archive.directory:entry-archive}") String directory,
+                               @Value("${wallet.archive.max-segment-entries:10000}") int maxSegmentEntries) {
+        if (maxSegmentEntries <= 0) {
+            throw new IllegalArgumentException(MAX_SEGMENT_ENTRIES_NOT_POSITIVE);
+        }
+        this.entryArchiveSegmentRepository = entryArchiveSegmentRepository;
+        this.entryRepository = entryRepository;
+        this.walletRepository = walletRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.directory = Paths.get(directory);
+        this.maxSegmentEntries = maxSegmentEntries;
+    }
+
+    /**
+     * Archives the entries older than {@code wallet.archive.horizon} on the {@code wallet.archive.cron} schedule,
+     * unless {@code wallet.archive.enabled} is off.
+     */
+    @Scheduled(cron = "${wallet.archive.cron:0 30 2 * * *}")
+    public void archiveOnSchedule() {
+        if (enabled) {
+            archive(LocalDateTime.now().minus(horizon));
+        }
+    }
+
+    /**
+     * Moves the entries dated before a cutoff into a new segment per wallet.
+     *
+     * @param cutoff the instant before which entries are archived
+     * @return the number of archived entries
+     * @throws CustomException if a wallet cannot be archived; the wallets archived before it stay archived
+     */
+    public long archive(LocalDateTime cutoff) {
+        try {
+            long archived = 0;
+            List<Long> walletIds = entryRepository.findWalletIdsWithEntriesBefore(cutoff);
+            for (Long walletId : walletIds) {
+                archived += archiveWallet(walletId, cutoff);
+            }
+            logger.info("Archived {} entries of {} wallets dated before {}", archived, walletIds.size(), cutoff);
+            return archived;
+        } catch (Exception ex) {
+            logger.error("Error archiving entries dated before {}: {}", cutoff, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_ARCHIVE_ENTRIES);
+        }
+    }
+
+    /**
+     * Sums the archived entries of a wallet within a date range by type and operation type.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, inclusive
+     * @return the totals by type and operation type
+     */
+    @Transactional(readOnly = true)
+    public List<EntryTotal> sumAmountsByTypeAndOperationType(Long walletId, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumAmounts(walletId, startDate, endDate, true);
+    }
+
+    /**
+     * Sums the archived entries of a wallet from a start date until before an end date by type and operation type.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, exclusive
+     * @return the totals by type and operation type
+     */
+    @Transactional(readOnly = true)
+    public List<EntryTotal> sumAmountsByTypeAndOperationTypeFromUntilBefore(Long walletId, LocalDateTime startDate,
+                                                                          LocalDateTime endDate) {
+        return sumAmounts(walletId, startDate, endDate, false);
+    }
+
+    /**
+     * Sums the balance change of the archived entries of a wallet within a date range.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, inclusive
+     * @return the balance change, debits added and credits subtracted
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal sumBalanceChangeBetween(Long walletId, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumBalanceChange(walletId, startDate, endDate, true);
+    }
+
+    /**
+     * Sums the balance change of the archived entries of a wallet from a start date until before an end date.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, exclusive
+     * @return the balance change, debits added and credits subtracted
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal sumBalanceChangeFromUntilBefore(Long walletId, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumBalanceChange(walletId, startDate, endDate, false);
+    }
+
+    /**
+     * Passes all archived entries of a wallet to a consumer, one segment in memory at a time.
+     *
+     * @param walletId the ID of the wallet
+     * @param consumer receives the archived entries in date and id order; they are not attached to their wallet
+     */
+    @Transactional(readOnly = true)
+    public void forEachByWalletId(Long walletId, Consumer<Entry> consumer) {
+        for (EntryArchiveSegment segment : entryArchiveSegmentRepository.findByWalletIdOrderByFirstDateAscIdAsc(walletId)) {
+            readSegment(segment, consumer);
+        }
+    }
+
+    /**
+     * Retrieves the archived entries of a wallet within a date range.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, inclusive
+     * @return the archived entries in date and id order; they are not attached to their wallet
+     */
+    @Transactional(readOnly = true)
+    public List<Entry> findByWalletIdAndDateBetween(Long walletId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Entry> entries = new ArrayList<>();
+        forEachByWalletIdAndDateBetween(walletId, startDate, endDate, entries::add);
+        return entries;
+    }
+
+    /**
+     * Passes the archived entries of a wallet within a date range to a consumer, one segment in memory at a time.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, inclusive
+     * @param consumer receives the archived entries in date and id order; they are not attached to their wallet
+     */
+    @Transactional(readOnly = true)
+    public void forEachByWalletIdAndDateBetween(Long walletId, LocalDateTime startDate, LocalDateTime endDate,
+                                                Consumer<Entry> consumer) {
+        forEachArchivedEntry(walletId, startDate, endDate, true, consumer);
+    }
+
+    /**
+     * Retrieves the newest archived entries of a wallet that come before a position, newest first. At most
+     * {@code limit} entries of a segment are kept in memory, and a segment is read only up to the position.
+     *
+     * @param walletId the ID of the wallet
+     * @param type the entry type to filter by, or {@code null} for all types
+     * @param operationType the operation type to filter by, or {@code null} for all operation types
+     * @param beforeDate the date of the position, or {@code null} to start from the newest archived entry
+     * @param beforeId the entry ID of the position
+     * @param limit the maximum number of entries to return
+     * @return the archived entries ordered by date and id descending; they are not attached to their wallet
+     */
+    @Transactional(readOnly = true)
+    public List<Entry> findPageBefore(Long walletId, EntryType type, EntryOperationType operationType,
+                                      LocalDateTime beforeDate, Long beforeId, int limit) {
+        List<EntryArchiveSegment> segments = beforeDate == null
+                ? entryArchiveSegmentRepository.findByWalletIdOrderByFirstDateDescIdDesc(walletId)
+                : entryArchiveSegmentRepository.findByWalletIdAndFirstDateLessThanEqualOrderByFirstDateDescIdDesc(walletId, beforeDate);
+        List<Entry> page = new ArrayList<>();
+        for (EntryArchiveSegment segment : segments) {
+            int remaining = limit - page.size();
+            if (remaining <= 0) {
+                break;
+            }
+            // the segment is read oldest first, so only its newest matches are kept
+            Deque<Entry> newest = new ArrayDeque<>(remaining);
+            readSegmentWhile(segment, entry -> {
+                if (beforeDate != null && !isBefore(entry, beforeDate, beforeId)) {
+                    return false;
+                }
+                if ((type == null || entry.getType() == type)
+                        && (operationType == null || entry.getOperationType() == operationType)) {
+                    if (newest.size() == remaining) {
+                        newest.removeFirst();
+                    }
+                    newest.addLast(entry);
+                }
+                return true;
+            });
+            newest.descendingIterator().forEachRemaining(page::add);
+        }
+        return page;
+    }
+
+    private record ArchivedEntryTotal(EntryType type, EntryOperationType operationType, BigDecimal total)
+            implements EntryTotal {
+
+        @Override
+        public EntryType getType() {
+            return type;
+        }
+
+        @Override
+        public EntryOperationType getOperationType() {
+            return operationType;
+        }
+
+        @Override
+        public BigDecimal getTotal() {
+            return total;
+        }
+    }
+
+    private record SegmentRange(String fileName, LocalDateTime firstDate, LocalDateTime lastDate, long entryCount) {
+    }
+
+    private long archiveWallet(Long walletId, LocalDateTime cutoff) throws IOException {
+        Files.createDirectories(directory.resolve(walletDirectory(walletId)));
+        List<Path> files = new ArrayList<>();
+        try {
+            // read-write, so that the segments are read from the primary database that the archived rows are deleted from
+            List<SegmentRange> ranges = transactionTemplate.execute(status -> writeSegments(walletId, cutoff, files));
+            long entryCount = ranges == null ? 0 : ranges.stream().mapToLong(SegmentRange::entryCount).sum();
+            if (entryCount == 0) {
+                return 0;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                Wallet wallet = walletRepository.getReferenceById(walletId);
+                for (SegmentRange range : ranges) {
+                    entryArchiveSegmentRepository.save(new EntryArchiveSegment(null, wallet, range.fileName(),
+                            range.firstDate(), range.lastDate(), range.entryCount(), cutoff));
+                }
+                int deleted = entryRepository.deleteByWalletIdAndDateBefore(walletId, cutoff);
+                // an entry backdated past the cutoff while the segments were written: retry on the next run
+                if (deleted != entryCount) {
+                    throw new IllegalStateException("Wallet " + walletId + " has " + deleted
+                            + " entries to archive but the segments hold " + entryCount);
+                }
+            });
+            return entryCount;
+        } catch (RuntimeException ex) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            throw ex;
+        }
+    }
+
+    private List<SegmentRange> writeSegments(Long walletId, LocalDateTime cutoff, List<Path> files) {
+        List<SegmentRange> ranges = new ArrayList<>();
+        try (Stream<Entry> entries = entryRepository.streamByWalletIdAndDateBefore(walletId, cutoff)) {
+            Iterator<Entry> it = entries.iterator();
+            while (it.hasNext()) {
+                String fileName = walletDirectory(walletId) + "/" + UUID.randomUUID() + SEGMENT_SUFFIX;
+                Path file = directory.resolve(fileName);
+                files.add(file);
+                ranges.add(writeSegment(it, file, fileName));
+            }
+        }
+        return ranges;
+    }
+
+    private SegmentRange writeSegment(Iterator<Entry> entries, Path file, String fileName) {
+        LocalDateTime firstDate = null;
+        LocalDateTime lastDate = null;
+        long entryCount = 0;
+        try (FileOutputStream fileOut = new FileOutputStream(file.toFile());
+             GZIPOutputStream gzipOut = new GZIPOutputStream(new BufferedOutputStream(fileOut));
+             CSVWriter csvWriter = new CSVWriter(new OutputStreamWriter(gzipOut, StandardCharsets.UTF_8))) {
+            csvWriter.writeNext(SEGMENT_HEADER);
+            while (entryCount < maxSegmentEntries && entries.hasNext()) {
+                Entry entry = entries.next();
+                csvWriter.writeNext(new String[]{
+                        entry.getId().toString(),
+                        entry.getAmount().toPlainString(),
+                        entry.getType().name(),
+                        entry.getOperationType().name(),
+                        entry.getDate().toString(),
+                        entry.getFromCurrency(),
+                        entry.getToCurrency(),
+                        entry.getRateVersion() == null ? null : entry.getRateVersion().toString()
+                });
+                if (firstDate == null) {
+                    firstDate = entry.getDate();
+                }
+                lastDate = entry.getDate();
+                entryCount++;
+                entityManager.detach(entry);
+            }
+            csvWriter.flush();
+            gzipOut.finish();
+            fileOut.getFD().sync();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new SegmentRange(fileName, firstDate, lastDate, entryCount);
+    }
+
+    private List<EntryTotal> sumAmounts(Long walletId, LocalDateTime startDate, LocalDateTime endDate,
+                                        boolean endInclusive) {
+        // totals[type][operationType] in minor units
+        long[][] totals = new long[ENTRY_TYPES.length][OPERATION_TYPES.length];
+        boolean[][] seen = new boolean[ENTRY_TYPES.length][OPERATION_TYPES.length];
+        forEachArchivedEntry(walletId, startDate, endDate, endInclusive, entry -> {
+            int type = entry.getType().ordinal();
+            int operationType = entry.getOperationType().ordinal();
+            totals[type][operationType] = Math.addExact(totals[type][operationType],
+                    Money.toMinorUnits(entry.getAmount()));
+            seen[type][operationType] = true;
+        });
+        List<EntryTotal> result = new ArrayList<>();
+        for (EntryType type : ENTRY_TYPES) {
+            for (EntryOperationType operationType : OPERATION_TYPES) {
+                if (seen[type.ordinal()][operationType.ordinal()]) {
+                    result.add(new ArchivedEntryTotal(type, operationType,
+                            Money.toAmount(totals[type.ordinal()][operationType.ordinal()])));
+                }
+            }
+        }
+        return result;
+    }
+
+    private BigDecimal sumBalanceChange(Long walletId, LocalDateTime startDate, LocalDateTime endDate,
+                                        boolean endInclusive) {
+        long[] change = {0};
+        forEachArchivedEntry(walletId, startDate, endDate, endInclusive,
+                entry -> change[0] = Math.addExact(change[0], balanceChange(entry)));
+        return Money.toAmount(change[0]);
+    }
+
+    private void forEachArchivedEntry(Long walletId, LocalDateTime startDate, LocalDateTime endDate,
+                                      boolean endInclusive, Consumer<Entry> consumer) {
+        for (EntryArchiveSegment segment : entryArchiveSegmentRepository.findOverlapping(walletId, startDate, endDate)) {
+            readSegmentWhile(segment, entry -> {
+                if (endInclusive ? entry.getDate().isAfter(endDate) : !entry.getDate().isBefore(endDate)) {
+                    return false;
+                }
+                if (!entry.getDate().isBefore(startDate)) {
+                    consumer.accept(entry);
+                }
+                return true;
+            });
+        }
+    }
+
+    private void readSegment(EntryArchiveSegment segment, Consumer<Entry> consumer) {
+        readSegmentWhile(segment, entry -> {
+            consumer.accept(entry);
+            return true;
+        });
+    }
+
+    // passes the entries of the segment in date and id order until the consumer returns false
+    private void readSegmentWhile(EntryArchiveSegment segment, Predicate<Entry> consumer) {
+        Path file = directory.resolve(segment.getFileName());
+        try (CSVReader csvReader = new CSVReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))), StandardCharsets.UTF_8))) {
+            csvReader.skip(1);
+            String[] row;
+            boolean more = true;
+            while (more && (row = csvReader.readNext()) != null) {
+                Entry entry = new Entry();
+                entry.setId(Long.valueOf(row[0]));
+                entry.setAmount(new BigDecimal(row[1]));
+                entry.setType(EntryType.valueOf(row[2]));
+                entry.setOperationType(EntryOperationType.valueOf(row[3]));
+                entry.setDate(LocalDateTime.parse(row[4]));
+                entry.setFromCurrency(row[5].isEmpty() ? null : row[5]);
+                entry.setToCurrency(row[6].isEmpty() ? null : row[6]);
+                // segments written before rate versions were recorded have no such column
+                entry.setRateVersion(row.length <= 7 || row[7].isEmpty() ? null : Long.valueOf(row[7]));
+                more = consumer.test(entry);
+            }
+        } catch (IOException | CsvValidationException ex) {
+            logger.error("Error reading archive segment {}: {}", file, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_READ_ARCHIVED_ENTRIES);
+        }
+    }
+
+    private static String walletDirectory(Long walletId) {
+        return "wallet-" + walletId;
+    }
+
+    private static boolean isBefore(Entry entry, LocalDateTime date, Long id) {
+        int byDate = entry.getDate().compareTo(date);
+        return byDate < 0 || (byDate == 0 && entry.getId() < id);
+    }
+
+    private static long balanceChange(Entry entry) {
+        long amount = Money.toMinorUnits(entry.getAmount());
+        return entry.getOperationType() == EntryOperationType.DEBIT ? amount : Math.negateExact(amount);
+    }
+}
@@ -0,0 +1,220 @@
+package com.wallet.wallet_api.services;
+
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.repositories.EntryMonthlyRollupRepository;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the monthly totals of every wallet per entry type and operation type, and uses them to sum
+ * long date ranges.
+ * <p>
+ * The rollups are incremented in the transaction that writes the entries, with the new entries aggregated in
+ * memory and upserted in one batch. A range is summed from the rollups of the months it covers day by day and
+ * from the raw entries of its partial first and last months, so the cost grows with the number of months rather
+ * than the number of entries. Wallets with entries but no rollups are backfilled at startup.
+ */
+@Service
+public class EntryMonthlyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryMonthlyRollupService.class);
+
+    private static final String ADD_TO_ROLLUP = "INSERT INTO entry_monthly_rollup " +
+            "(wallet_id, month_start, type, operation_type, total, entry_count) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), entry_count = entry_count + VALUES(entry_count)";
+    private static final String FAILED_TO_BACKFILL_ROLLUPS = "Failed to backfill monthly entry rollups";
+
+    private final EntryMonthlyRollupRepository entryMonthlyRollupRepository;
+
+    private final EntryRepository entryRepository;
+
+    private final WalletRepository walletRepository;
+
+    private final EntryArchiveService entryArchiveService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean backfillOnStartup;
+
+    @Autowired
+    public EntryMonthlyRollupService(EntryMonthlyRollupRepository entryMonthlyRollupRepository,
+                                     EntryRepository entryRepository, WalletRepository walletRepository,
+                                     EntryArchiveService entryArchiveService, TransactionTemplate transactionTemplate,
+                                     JdbcTemplate jdbcTemplate,
+                                     @Value("${wallet.entry-rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.entryMonthlyRollupRepository = entryMonthlyRollupRepository;
+        this.entryRepository = entryRepository;
+        this.walletRepository = walletRepository;
+        this.entryArchiveService = entryArchiveService;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    /**
+     * Adds the entries to the rollups of their wallets and months.
+     * Must run in the transaction that wrote the entries.
+     *
+     * @param entries the entries that were just appended
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEntries(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, BigDecimal> totals = new TreeMap<>();
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (Entry entry : entries) {
+            aggregate(totals, counts, entry.getWallet().getId(), entry);
+        }
+        addToRollups(totals, counts);
+    }
+
+    /**
+     * Sums the entries of a wallet within a date range by type and operation type.
+     * Months that the range covers up to the start of the next month are read from the rollups; a range that ends
+     * within the last day of a month, even at 23:59:59, reads that month from the entries so that entries in its final
+     * fractional second are counted only when the range includes them.
+     *
+     * @param walletId the ID of the wallet
+     * @param startDate the start date of the range
+     * @param endDate the end date of the range, inclusive
+     * @return the totals by type and operation type; the same pair may be returned more than once
+     */
+    @Transactional(readOnly = true)
+    public List<EntryTotal> sumAmountsByTypeAndOperationType(Long walletId, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate firstMonth = startDate.toLocalDate().withDayOfMonth(1);
+        if (startDate.isAfter(firstMonth.atStartOfDay())) {
+            firstMonth = firstMonth.plusMonths(1);
+        }
+        LocalDate lastMonth = endDate.toLocalDate().withDayOfMonth(1);
+        if (endDate.isBefore(lastMonth.plusMonths(1).atStartOfDay())) {
+            lastMonth = lastMonth.minusMonths(1);
+        }
+        if (firstMonth.isAfter(lastMonth)) {
+            List<EntryTotal> totals = new ArrayList<>(entryRepository.sumAmountsByTypeAndOperationType(walletId, startDate, endDate));
+            totals.addAll(entryArchiveService.sumAmountsByTypeAndOperationType(walletId, startDate, endDate));
+            return totals;
+        }
+
+        List<EntryTotal> totals = new ArrayList<>(
+                entryMonthlyRollupRepository.sumTotalsByTypeAndOperationType(walletId, firstMonth, lastMonth));
+        if (startDate.isBefore(firstMonth.atStartOfDay())) {
+            totals.addAll(entryRepository.sumAmountsByTypeAndOperationTypeFromUntilBefore(
+                    walletId, startDate, firstMonth.atStartOfDay()));
+            totals.addAll(entryArchiveService.sumAmountsByTypeAndOperationTypeFromUntilBefore(
+                    walletId, startDate, firstMonth.atStartOfDay()));
+        }
+        LocalDateTime afterLastMonth = lastMonth.plusMonths(1).atStartOfDay();
+        if (!endDate.isBefore(afterLastMonth)) {
+            totals.addAll(entryRepository.sumAmountsByTypeAndOperationType(walletId, afterLastMonth, endDate));
+            totals.addAll(entryArchiveService.sumAmountsByTypeAndOperationType(walletId, afterLastMonth, endDate));
+        }
+        return totals;
+    }
+
+    /**
+     * Backfills the rollups of the existing data when the application starts, unless
+     * {@code wallet.entry-rollups.backfill-on-startup} is disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Builds the rollups of every wallet that has entries but no rollups.
+     * Each wallet is rebuilt in its own transaction while holding its row lock, so entries written meanwhile wait.
+     *
+     * @return the number of backfilled wallets
+     * @throws CustomException if a wallet cannot be backfilled
+     */
+    public int backfill() {
+        try {
+            List<Long> walletIds = entryMonthlyRollupRepository.findWalletIdsWithoutRollups();
+            for (Long walletId : walletIds) {
+                transactionTemplate.executeWithoutResult(status -> rebuildRollups(walletId));
+            }
+            logger.info("Backfilled monthly entry rollups of {} wallets", walletIds.size());
+            return walletIds.size();
+        } catch (Exception ex) {
+            logger.error("Error backfilling monthly entry rollups: {}", ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_BACKFILL_ROLLUPS);
+        }
+    }
+
+    private record RollupKey(Long walletId, LocalDate monthStart, EntryType type, EntryOperationType operationType)
+            implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::walletId)
+                .thenComparing(RollupKey::monthStart)
+                .thenComparing(RollupKey::type)
+                .thenComparing(RollupKey::operationType);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private void rebuildRollups(Long walletId) {
+        if (walletRepository.findAllByIdInOrderByIdForUpdate(List.of(walletId)).isEmpty()) {
+            return;
+        }
+        entryMonthlyRollupRepository.deleteByWalletId(walletId);
+        entryMonthlyRollupRepository.insertWalletRollups(walletId);
+
+        Map<RollupKey, BigDecimal> totals = new TreeMap<>();
+        Map<RollupKey, Long> counts = new HashMap<>();
+        entryArchiveService.forEachByWalletId(walletId, entry -> aggregate(totals, counts, walletId, entry));
+        if (!totals.isEmpty()) {
+            addToRollups(totals, counts);
+        }
+    }
+
+    private void addToRollups(Map<RollupKey, BigDecimal> totals, Map<RollupKey, Long> counts) {
+        // one multi-row statement thanks to rewriteBatchedStatements; keys are sorted so rows are locked in index order
+        jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, totals.entrySet().stream()
+                .map(total -> new Object[]{total.getKey().walletId(), total.getKey().monthStart(),
+                        total.getKey().type().name(), total.getKey().operationType().name(),
+                        total.getValue(), counts.get(total.getKey())})
+                .toList());
+    }
+
+    private static void aggregate(Map<RollupKey, BigDecimal> totals, Map<RollupKey, Long> counts, Long walletId,
+                                  Entry entry) {
+        RollupKey key = new RollupKey(walletId, entry.getDate().toLocalDate().withDayOfMonth(1),
+                entry.getType(), entry.getOperationType());
+        totals.merge(key, entry.getAmount(), BigDecimal::add);
+        counts.merge(key, 1L, Long::sum);
+    }
+}
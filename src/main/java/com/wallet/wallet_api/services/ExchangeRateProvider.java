@@ -0,0 +1,202 @@
+package com.wallet.wallet_api.services;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.wallet.wallet_api.entities.ExchangeRateSnapshot;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import com.wallet.wallet_api.exceptions.CustomException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Provides the exchange rates used by transfers, loaded from the CSV file at {@code wallet.fx.rates-location} with
+ * the columns of {@link #RATES_HEADER}.
+ * <p>
+ * The file is read again every {@code wallet.fx.refresh-interval}. When its rates changed, a new
+ * {@link ExchangeRateSnapshot} replaces the current one in a single reference swap, so readers never wait for a
+ * refresh. Its version is derived from the rates themselves, so every instance and every restart that loads the
+ * same rates publishes the same version. Before a snapshot is published its rates are recorded in the
+ * {@code published_exchange_rate} table, so that the version recorded on transfer entries can always be traced back
+ * to its rates. A file that cannot be read, holds an invalid rate or cannot be recorded fails the startup, and is
+ * logged and skipped by later refreshes. The current version is published as the {@code wallet.fx.rates.version}
+ * gauge.
+ */
+@Service
+public class ExchangeRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateProvider.class);
+
+    public static final String[] RATES_HEADER = {"From Currency", "To Currency", "Rate"};
+
+    public static final String VERSION_METRIC = "wallet.fx.rates.version";
+
+    private static final String FAILED_TO_LOAD_RATES = "Failed to load exchange rates from ";
+    private static final String FAILED_TO_RECORD_RATES = "Failed to record exchange rates version ";
+    private static final String RECORD_RATE = "INSERT INTO published_exchange_rate " +
+            "(rate_version, from_currency, to_currency, rate, published_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE rate_version = rate_version";
+    // 48 bits, so that the version is exact as a gauge value too
+    private static final int VERSION_BYTES = 6;
+
+    private final Resource ratesResource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicReference<ExchangeRateSnapshot> rates = new AtomicReference<>();
+
+    @Autowired
+    public ExchangeRateProvider(ResourceLoader resourceLoader,
+                                @Value("${wallet.fx.rates-location:classpath:exchange-rates.csv}") String ratesLocation,
+                                JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.ratesResource = resourceLoader.getResource(ratesLocation);
+        this.jdbcTemplate = jdbcTemplate;
+        refresh();
+        Gauge.builder(VERSION_METRIC, rates, current -> current.get().getVersion())
+                .description("Version of the exchange rates used by new transfers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the current exchange rates. A transfer should convert all of its amounts with the same snapshot.
+     *
+     * @return the current snapshot of the exchange rates
+     */
+    public ExchangeRateSnapshot getRates() {
+        return rates.get();
+    }
+
+    /**
+     * Reloads the exchange rates and, if they changed, records and publishes them as a new snapshot.
+     *
+     * @return true if a new snapshot was published
+     * @throws CustomException if the rates cannot be read, are invalid or cannot be recorded
+     */
+    public synchronized boolean refresh() {
+        Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> loaded = readRates();
+        ExchangeRateSnapshot previous = rates.get();
+        long version = versionOf(loaded);
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(version, Instant.now(), loaded);
+        if (previous != null && previous.hasSameRates(snapshot)) {
+            return false;
+        }
+        record(version, loaded);
+        rates.set(snapshot);
+        logger.info("Loaded exchange rates version {} from {}: {}", version, ratesResource.getDescription(), snapshot);
+        return true;
+    }
+
+    /**
+     * Reloads the exchange rates on the {@code wallet.fx.refresh-interval} schedule, keeping the current ones if
+     * the file cannot be read.
+     */
+    @Scheduled(fixedDelayString = "${wallet.fx.refresh-interval:PT1M}",
+            initialDelayString = "${wallet.fx.refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (CustomException ex) {
+            logger.error("Keeping exchange rates version {}: {}", rates.get().getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Derives the version of a set of rates from the currency pairs and the rates, ignoring trailing zeros and the
+     * order of the rows.
+     *
+     * @param rates the rates by source and target currency
+     * @return a positive version that only changes when the rates do
+     */
+    public static long versionOf(Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> rates) {
+        try {
+            List<String> pairs = new ArrayList<>();
+            rates.forEach((from, toRates) -> toRates.forEach((to, rate) ->
+                    pairs.add(from + "_" + to + "=" + rate.stripTrailingZeros().toPlainString())));
+            Collections.sort(pairs);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String pair : pairs) {
+                digest.update((pair + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] hash = digest.digest();
+            long version = 0;
+            for (int i = 0; i < VERSION_BYTES; i++) {
+                version = version << Byte.SIZE | hash[i] & 0xFF;
+            }
+            return version;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void record(long version, Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> loaded) {
+        LocalDateTime publishedAt = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        loaded.forEach((from, toRates) -> toRates.forEach((to, rate) ->
+                rows.add(new Object[]{version, from.name(), to.name(), rate, publishedAt})));
+        try {
+            // a version already recorded by another instance or an earlier run is kept as it is
+            jdbcTemplate.batchUpdate(RECORD_RATE, rows);
+        } catch (DataAccessException ex) {
+            logger.error("Error recording exchange rates version {}: {}", version, ex.getMessage());
+            throw new CustomException(FAILED_TO_RECORD_RATES + version);
+        }
+    }
+
+    private Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> readRates() {
+        Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> loaded = new EnumMap<>(CurrencyCode.class);
+        try (CSVReader reader = new CSVReader(new InputStreamReader(ratesResource.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String[] header = reader.readNext();
+            if (header == null || !Arrays.equals(RATES_HEADER, Arrays.stream(header).map(String::trim).toArray())) {
+                throw new IllegalArgumentException("The first row must be the header " + String.join(",", RATES_HEADER));
+            }
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                if (row.length == 1 && row[0].isBlank()) {
+                    continue;
+                }
+                if (row.length != RATES_HEADER.length) {
+                    throw new IllegalArgumentException("Invalid row " + String.join(",", row));
+                }
+                CurrencyCode from = CurrencyCode.valueOf(row[0].trim());
+                CurrencyCode to = CurrencyCode.valueOf(row[1].trim());
+                BigDecimal rate = new BigDecimal(row[2].trim());
+                if (from == to || rate.signum() <= 0) {
+                    throw new IllegalArgumentException("Invalid rate " + String.join(",", row));
+                }
+                if (loaded.computeIfAbsent(from, currency -> new EnumMap<>(CurrencyCode.class)).put(to, rate) != null) {
+                    throw new IllegalArgumentException("Duplicate rate for " + from + "_" + to);
+                }
+            }
+        } catch (IOException | CsvValidationException | IllegalArgumentException ex) {
+            logger.error("Error loading exchange rates from {}: {}", ratesResource.getDescription(), ex.getMessage());
+            throw new CustomException(FAILED_TO_LOAD_RATES + ratesResource.getDescription());
+        }
+        return loaded;
+    }
+}
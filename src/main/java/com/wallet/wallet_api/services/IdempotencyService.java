@@ -0,0 +1,224 @@
+package com.wallet.wallet_api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.wallet_api.entities.IdempotencyRecord;
+import com.wallet.wallet_api.entities.enums.IdempotencyStatus;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.repositories.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code POST} operations safe to retry with an {@code Idempotency-Key} header.
+ * <p>
+ * A key is claimed by inserting an {@code IN_PROGRESS} row into the {@code idempotency_record} table before the
+ * operation runs, so only one instance can execute it. The first successful (2xx) response is then stored in that row
+ * and in a bounded in-memory cache that evicts keys after the configured TTL; later requests with the same key replay
+ * it instead of executing again. A duplicate that arrives on the same instance while the original is still running
+ * waits for the original's response; one that finds the key claimed elsewhere, or left claimed by a crash, is
+ * rejected until the TTL passes. A failed response releases the key. Reusing a key for a different request is
+ * rejected.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String INVALID_KEY = "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters";
+    private static final String KEY_REUSED = "Idempotency-Key was already used for a different request";
+    private static final String REQUEST_IN_PROGRESS = "A request with this Idempotency-Key is still in progress";
+    private static final String ORIGINAL_REQUEST_FAILED = "The original request with this Idempotency-Key failed";
+    private static final String FAILED_TO_FINGERPRINT_REQUEST = "Failed to fingerprint request";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration ttl;
+
+    private final Duration inFlightWait;
+
+    private final Cache<String, CompletableFuture<IdempotencyRecord>> responses;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              @Value("${wallet.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${wallet.idempotency.max-cached-keys:10000}") long maxCachedKeys,
+                              @Value("${wallet.idempotency.in-flight-wait:30s}") Duration inFlightWait) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inFlightWait = inFlightWait;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxCachedKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Executes the operation once per idempotency key and replays its response for repeated requests.
+     *
+     * @param idempotencyKey the client supplied key, or {@code null} to execute without deduplication
+     * @param operation the name of the operation, part of the request fingerprint
+     * @param request the request body, part of the request fingerprint
+     * @param action executes the operation and builds its response
+     * @return the response of the operation, or the stored response of an earlier request with the same key;
+     * {@code 422 Unprocessable Entity} if the key was used for a different request and {@code 409 Conflict}
+     * if the original request is still running after waiting for it or runs on another instance
+     */
+    public ResponseEntity<String> execute(String idempotencyKey, String operation, Object request,
+                                          Supplier<ResponseEntity<String>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return new ResponseEntity<>(INVALID_KEY, HttpStatus.BAD_REQUEST);
+        }
+        String requestHash = fingerprint(operation, request);
+
+        CompletableFuture<IdempotencyRecord> pending = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = responses.asMap().putIfAbsent(idempotencyKey, pending);
+        if (existing != null) {
+            return replay(requestHash, existing);
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            IdempotencyRecord stored = idempotencyRecordRepository.findById(idempotencyKey).orElse(null);
+            if (stored != null && stored.getCreatedAt().isAfter(now.minus(ttl))) {
+                if (stored.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                    // running on another instance, or interrupted by a crash there; do not cache it
+                    responses.asMap().remove(idempotencyKey, pending);
+                }
+                pending.complete(stored);
+                return replay(requestHash, pending);
+            }
+            if (stored != null) {
+                idempotencyRecordRepository.deleteExpired(idempotencyKey, now.minus(ttl));
+            }
+
+            IdempotencyRecord claim = new IdempotencyRecord(idempotencyKey, requestHash,
+                    IdempotencyStatus.IN_PROGRESS, null, null, now);
+            try {
+                idempotencyRecordRepository.claim(idempotencyKey, requestHash, now);
+            } catch (DataIntegrityViolationException ex) {
+                // another instance claimed the key since the lookup above
+                responses.asMap().remove(idempotencyKey, pending);
+                pending.complete(claim);
+                return replay(requestHash, pending);
+            }
+
+            ResponseEntity<String> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException ex) {
+                release(idempotencyKey);
+                throw ex;
+            }
+            IdempotencyRecord record = new IdempotencyRecord(idempotencyKey, requestHash, IdempotencyStatus.COMPLETED,
+                    response.getStatusCode().value(), response.getBody(), now);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                complete(record);
+            } else {
+                release(idempotencyKey);
+                responses.asMap().remove(idempotencyKey, pending);
+            }
+            pending.complete(record);
+            return response;
+        } catch (RuntimeException ex) {
+            responses.asMap().remove(idempotencyKey, pending);
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Deletes the stored responses that are older than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval:PT1H}",
+            initialDelayString = "${wallet.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredRecords() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        logger.info("Purged {} expired idempotency records", purged);
+    }
+
+    private ResponseEntity<String> replay(String requestHash, CompletableFuture<IdempotencyRecord> original) {
+        IdempotencyRecord record;
+        try {
+            record = original.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return new ResponseEntity<>(REQUEST_IN_PROGRESS, HttpStatus.CONFLICT);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(REQUEST_IN_PROGRESS, HttpStatus.CONFLICT);
+        } catch (ExecutionException ex) {
+            return new ResponseEntity<>(ORIGINAL_REQUEST_FAILED, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+            return new ResponseEntity<>(REQUEST_IN_PROGRESS, HttpStatus.CONFLICT);
+        }
+        if (!record.getRequestHash().equals(requestHash)) {
+            return new ResponseEntity<>(KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return ResponseEntity.status(record.getStatusCode())
+                .header(IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString())
+                .body(record.getResponseBody());
+    }
+
+    private void complete(IdempotencyRecord record) {
+        // the operation has committed at this point, so a failure leaves the key claimed: retries get 409 Conflict
+        // until the TTL passes instead of executing the operation a second time
+        int completed = idempotencyRecordRepository.complete(record.getIdempotencyKey(), record.getStatusCode(),
+                record.getResponseBody());
+        if (completed != 1) {
+            throw new IllegalStateException("Idempotency key " + record.getIdempotencyKey() + " is no longer claimed");
+        }
+    }
+
+    private void release(String idempotencyKey) {
+        try {
+            idempotencyRecordRepository.release(idempotencyKey);
+        } catch (Exception ex) {
+            // the key stays claimed until the TTL passes, so retries get 409 Conflict rather than a second execution
+            logger.error("Error releasing idempotency key {}: {}", idempotencyKey, ex.getMessage(), ex);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            logger.error("Error fingerprinting {} request: {}", operation, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_FINGERPRINT_REQUEST);
+        }
+    }
+}
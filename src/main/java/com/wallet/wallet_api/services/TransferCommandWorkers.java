@@ -0,0 +1,131 @@
+package com.wallet.wallet_api.services;
+
+import com.wallet.wallet_api.repositories.TransferCommandRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the transfer outbox filled by {@code POST /transfer} in asynchronous mode.
+ * <p>
+ * When {@code wallet.transfer.async.enabled} is on, a fixed pool of workers starts with the application. Each
+ * worker owns the sender wallets whose id modulo the number of workers is its number, and applies their pending
+ * transfers in batches of up to {@code batch-size}, one transaction per batch, until the outbox is empty; it then
+ * polls again after {@code poll-interval}. Processed commands are kept for {@code retention} so that their status
+ * can be read, then deleted.
+ */
+@Service
+public class TransferCommandWorkers {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferCommandWorkers.class);
+
+    private static final String INVALID_WORKERS = "wallet.transfer.async.workers and batch-size must be positive";
+
+    private final UserService userService;
+
+    private final TransferCommandRepository transferCommandRepository;
+
+    private final boolean enabled;
+
+    private final int workers;
+
+    private final int batchSize;
+
+    private final Duration pollInterval;
+
+    private final Duration retention;
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public TransferCommandWorkers(UserService userService, TransferCommandRepository transferCommandRepository,
+                                  @Value("${wallet.transfer.async.enabled:false}") boolean enabled,
+                                  @Value("${wallet.transfer.async.workers:4}") int workers,
+                                  @Value("${wallet.transfer.async.batch-size:500}") int batchSize,
+                                  @Value("${wallet.transfer.async.poll-interval:100ms}") Duration pollInterval,
+                                  @Value("${wallet.transfer.async.retention:7d}") Duration retention) {
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(INVALID_WORKERS);
+        }
+        this.userService = userService;
+        this.transferCommandRepository = transferCommandRepository;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    /**
+     * Starts the workers, unless {@code wallet.transfer.async.enabled} is off.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "transfer-worker-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int worker = 0; worker < workers; worker++) {
+            int number = worker;
+            executor.scheduleWithFixedDelay(() -> drain(number), 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        logger.info("Started {} transfer workers applying batches of up to {} transfers", workers, batchSize);
+    }
+
+    /**
+     * Applies the pending transfers of one worker until none are left.
+     *
+     * @param worker the number of the worker, from 0 to the number of workers - 1
+     * @return the number of commands taken from the outbox
+     */
+    public long drain(int worker) {
+        long drained = 0;
+        try {
+            int taken;
+            do {
+                taken = userService.processTransferCommands(worker, workers, batchSize);
+                drained += taken;
+            } while (taken == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception ex) {
+            // keep the worker scheduled; its commands stay pending until the next poll
+            logger.error("Error draining the transfer commands of worker {}: {}", worker, ex.getMessage(), ex);
+        }
+        return drained;
+    }
+
+    /**
+     * Deletes the processed commands that are older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${wallet.transfer.async.purge-interval:PT1H}",
+            initialDelayString = "${wallet.transfer.async.purge-interval:PT1H}")
+    public void purgeProcessedCommands() {
+        int purged = transferCommandRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        logger.info("Purged {} processed transfer commands", purged);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.wallet.wallet_api.services;
+
+import com.wallet.wallet_api.entities.enums.ConcurrencyMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs transfers (and other multi-wallet balance updates such as entry imports) and retries them when they lose
+ * an optimistic-lock check or a deadlock.
+ * <p>
+ * Every attempt must start its own transaction, so the executor has to be called from outside
+ * the transactional service method. The delay between attempts grows exponentially up to
+ * {@code maxBackoffMs} and is randomised ("full jitter") so that colliding transfers do not retry in lockstep.
+ * Retries are published as the {@code wallet.transfer.retries} and {@code wallet.transfer.retries.exhausted} counters.
+ */
+@Component
+public class TransferRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferRetryExecutor.class);
+
+    private static final String RETRIES_METRIC = "wallet.transfer.retries";
+    private static final String RETRIES_EXHAUSTED_METRIC = "wallet.transfer.retries.exhausted";
+    private static final String MODE_TAG = "mode";
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMs;
+
+    private final long maxBackoffMs;
+
+    private final Counter retries;
+
+    private final Counter retriesExhausted;
+
+    @Autowired
+    public TransferRetryExecutor(MeterRegistry meterRegistry,
+                                 @Value("${wallet.transfer.concurrency-mode:PESSIMISTIC}") ConcurrencyMode concurrencyMode,
+                                 @Value("${wallet.transfer.retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${wallet.transfer.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                 @Value("${wallet.transfer.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retries = Counter.builder(RETRIES_METRIC)
+                .description("Transfers retried after a concurrent update or a deadlock")
+                .tag(MODE_TAG, concurrencyMode.name())
+                .register(meterRegistry);
+        this.retriesExhausted = Counter.builder(RETRIES_EXHAUSTED_METRIC)
+                .description("Transfers that failed after the last retry")
+                .tag(MODE_TAG, concurrencyMode.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the transfer, retrying it on concurrency failures.
+     *
+     * @param transfer the transfer to run; it must open and commit its own transaction
+     * @throws ConcurrencyFailureException if the last attempt still failed or the thread was interrupted while waiting
+     */
+    public void execute(Runnable transfer) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transfer.run();
+                return;
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    retriesExhausted.increment();
+                    logger.error("Transfer failed after {} attempts: {}", attempt, ex.getMessage());
+                    throw ex;
+                }
+                retries.increment();
+                logger.warn("Transfer attempt {} lost a concurrent update, retrying: {}", attempt, ex.getMessage());
+                backOff(attempt, ex);
+            }
+        }
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException cause) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
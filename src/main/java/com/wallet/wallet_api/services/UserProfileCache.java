@@ -0,0 +1,112 @@
+package com.wallet.wallet_api.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Caches the user profiles served by {@code GET /api/users/{id}}, wallets and balances included but not entries.
+ * <p>
+ * The cache is bounded by {@code wallet.user-profile-cache.max-size} profiles, each kept for at most
+ * {@code wallet.user-profile-cache.ttl}. A profile is evicted once the transaction that changed the user, its
+ * wallets or their balances commits; a load that was running meanwhile is discarded rather than cached.
+ * Evictions only reach the cache of the instance that made the change, so with several instances another instance
+ * keeps serving the profile it cached until the TTL passes; the TTL bounds how stale a profile can be.
+ * <p>
+ * A miss is loaded on the calling thread outside of the cache's atomic compute, which only installs a placeholder
+ * future, so that a virtual thread blocked on the database does not pin its carrier thread inside a synchronized
+ * map bin. Concurrent misses for the same user wait for that future, and load the profile themselves if it failed.
+ * Hits, misses and evictions are published as the {@code cache.*} metrics tagged {@code cache=user-profiles}.
+ */
+@Component
+public class UserProfileCache {
+
+    public static final String CACHE_NAME = "user-profiles";
+
+    private final AsyncCache<Long, ResponseUserDTO> profiles;
+
+    @Autowired
+    public UserProfileCache(MeterRegistry meterRegistry,
+                            @Value("${wallet.user-profile-cache.max-size:10000}") long maxSize,
+                            @Value("${wallet.user-profile-cache.ttl:1m}") Duration ttl) {
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, CACHE_NAME);
+    }
+
+    /**
+     * Retrieves the profile of a user, loading it on a miss.
+     *
+     * @param userId the ID of the user
+     * @param loader loads the profile of a user that is not cached
+     * @return the profile of the user
+     */
+    public ResponseUserDTO get(Long userId, Function<Long, ResponseUserDTO> loader) {
+        while (true) {
+            CompletableFuture<ResponseUserDTO> loading = new CompletableFuture<>();
+            CompletableFuture<ResponseUserDTO> profile = profiles.get(userId, (id, executor) -> loading);
+            if (profile != loading) {
+                ResponseUserDTO cached = profile.join();
+                if (cached != null) {
+                    return cached;
+                }
+                // the load failed; load the profile again rather than share its failure
+                continue;
+            }
+            ResponseUserDTO loaded = null;
+            try {
+                loaded = loader.apply(userId);
+                return loaded;
+            } finally {
+                // a failed load completes with null, which drops the entry without Caffeine logging the failure
+                loading.complete(loaded);
+            }
+        }
+    }
+
+    /**
+     * Evicts the profile of a user once the current transaction commits, or right away outside a transaction.
+     *
+     * @param userId the ID of the user
+     */
+    public void evictAfterCommit(Long userId) {
+        evictAfterCommit(Set.of(userId));
+    }
+
+    /**
+     * Evicts the profiles of users once the current transaction commits, or right away outside a transaction.
+     *
+     * @param userIds the IDs of the users
+     */
+    public void evictAfterCommit(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            profiles.synchronous().invalidateAll(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                profiles.synchronous().invalidateAll(userIds);
+            }
+        });
+    }
+}
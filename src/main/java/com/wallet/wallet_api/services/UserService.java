@@ -2,34 +2,63 @@ package com.wallet.wallet_api.services;
 
 import com.wallet.wallet_api.entities.EntriesSummary;
 import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.TransferCommand;
 import com.wallet.wallet_api.entities.User;
 import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.dto.BatchTransferResultDTO;
 import com.wallet.wallet_api.entities.dto.DepositWithdrawalDTO;
+import com.wallet.wallet_api.entities.dto.EntryImportResultDTO;
+import com.wallet.wallet_api.entities.dto.EntryPageDTO;
+import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
 import com.wallet.wallet_api.entities.dto.TransferDTO;
 import com.wallet.wallet_api.entities.dto.UserDTO;
+import com.wallet.wallet_api.entities.dto.UserPageDTO;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.repositories.projections.WalletView;
 
+import java.io.Reader;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
+    String START_DATE_AFTER_END_DATE = "Start date cannot be after end date";
+
     void createUser(UserDTO userDTO);
 
     User getUserById(Long id);
 
-    List<User> getAllUsers();
+    ResponseUserDTO getUserProfile(Long id);
+
+    UserPageDTO getUsersPage(String cursor, int size);
 
-    List<Wallet> getWallets(Long id);
+    List<WalletView> getWallets(Long id);
 
     Wallet addWalletToUser(Long userId, Wallet wallet);
 
     Wallet getWalletByUserIdAndWalletId(Long userId, Long walletId);
 
-    EntriesSummary calculateEntrySummary(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate);
+    WalletView getWalletView(Long userId, Long walletId);
+
+    EntriesSummary calculateEntrySummary(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate, boolean includeEntries);
 
-    List<Entry> getEntriesForCSV(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate);
+    EntryPageDTO getEntriesPage(Wallet wallet, String cursor, int size, EntryType type, EntryOperationType operationType);
+
+    void streamEntriesForCSV(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate, Consumer<Entry> consumer);
 
     void transfer(TransferDTO transferDTO);
 
+    BatchTransferResultDTO transferBatch(List<TransferDTO> transfers);
+
+    TransferCommand submitTransfer(TransferDTO transferDTO);
+
+    TransferCommand getTransferCommand(Long id);
+
+    int processTransferCommands(int worker, int workers, int batchSize);
+
     void depositOrWithdrawal(DepositWithdrawalDTO depositWithdrawalDTO);
+
+    EntryImportResultDTO importEntriesFromCSV(Reader csv, Consumer<String[]> rejectedRowConsumer);
 }
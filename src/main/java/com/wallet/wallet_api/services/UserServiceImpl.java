@@ -1,26 +1,76 @@
 package com.wallet.wallet_api.services;
 
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
 import com.wallet.wallet_api.entities.*;
+import com.wallet.wallet_api.entities.dto.BatchTransferResultDTO;
 import com.wallet.wallet_api.entities.dto.DepositWithdrawalDTO;
+import com.wallet.wallet_api.entities.dto.EntryImportResultDTO;
+import com.wallet.wallet_api.entities.dto.EntryPageDTO;
+import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
 import com.wallet.wallet_api.entities.dto.TransferDTO;
+import com.wallet.wallet_api.entities.dto.TransferResultDTO;
 import com.wallet.wallet_api.entities.dto.UserDTO;
+import com.wallet.wallet_api.entities.dto.UserPageDTO;
+import com.wallet.wallet_api.entities.enums.ConcurrencyMode;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
 import com.wallet.wallet_api.entities.enums.EntryOperationType;
 import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.entities.enums.TransferStatus;
 import com.wallet.wallet_api.exceptions.CustomException;
 import com.wallet.wallet_api.exceptions.InsufficientFundsException;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.TransferCommandRepository;
+import com.wallet.wallet_api.repositories.TransferWorkerLockRepository;
 import com.wallet.wallet_api.repositories.UserRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import com.wallet.wallet_api.repositories.projections.WalletView;
 import jakarta.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
@@ -33,32 +83,103 @@ public class UserServiceImpl implements UserService {
     private static final String FAILED_TO_FETCH_USERS = "Failed to fetch users";
     private static final String FAILED_TO_CREATE_USER = "Failed to create user";
     private static final String FAILED_TO_FETCH_WALLETS = "Failed to fetch wallets for user ID ";
+    private static final String FAILED_TO_FETCH_WALLET = "An unexpected error occurred while fetching the wallet";
     private static final String FAILED_TO_ADD_WALLET = "Failed to add wallet to user with ID ";
-    private static final String NO_WALLETS_FOUND = "No wallets found for userId ";
     public static final String WALLET_NOT_FOUND = "Wallet not found for userId %d and walletId %d";
     private static final String ERROR_CALCULATING_ENTRY_SUMMARY = "Error calculating entry summary: null value encountered";
     private static final String FAILED_TO_CALCULATE_ENTRY_SUMMARY = "Failed to calculate entry summary";
     private static final String WALLET_CANNOT_BE_NULL = "Wallet cannot be null";
     private static final String START_END_DATE_CANNOT_BE_NULL = "Start date and end date cannot be null";
-    private static final String START_DATE_AFTER_END_DATE = "Start date cannot be after end date";
     private static final String FAILED_TO_RETRIEVE_ENTRIES = "Failed to retrieve entries for CSV";
     private static final String FAILED_TO_CREATE_ENTRY = "Failed to create entry";
     private static final String CANNOT_TRANSFER_SAME_WALLET = "Cannot transfer to the same wallet!";
     private static final String INVALID_ENTRY_AMOUNT = "Invalid entry amount";
-    private static final String RECEIVER_NOT_FOUND = "Receiver not found";
     private static final String RECEIVER_WALLET_NOT_FOUND = "Receiver's wallet not found";
     private static final String WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE = "The withdrawal amount exceeds the current balance";
     private static final String UNEXPECTED_ERROR_TRANSFER = "An unexpected error occurred during transfer";
     private static final String AMOUNT_MUST_BE_POSITIVE = "Amount must be positive";
     private static final String FAILED_TO_HANDLE_DEPOSIT = "Failed to handle deposit";
     private static final String FAILED_TO_HANDLE_WITHDRAWAL = "Failed to handle withdrawal";
+    private static final String INVALID_PAGE_SIZE = "Page size must be between 1 and ";
+    private static final String INVALID_CURSOR = "Invalid cursor";
+    private static final String FAILED_TO_RETRIEVE_ENTRIES_PAGE = "Failed to retrieve entries";
+    private static final String INVALID_BATCH_SIZE = "Number of transfers must be between 1 and ";
+    private static final String INVALID_TRANSFER = "Transfer is missing user, wallet or amount";
+    private static final String FAILED_TO_APPLY_TRANSFER_BATCH = "Failed to apply transfer batch";
+    private static final String FAILED_TO_APPLY_TRANSFER = "Failed to apply transfer";
+    private static final String TRANSFER_NOT_FOUND = "Transfer not found with ID: ";
+    private static final String FAILED_TO_SUBMIT_TRANSFER = "Failed to submit transfer";
+    private static final String FAILED_TO_FETCH_TRANSFER = "Failed to fetch transfer with ID ";
+    private static final String TRANSFERS_ALREADY_PROCESSED = "Transfers were processed concurrently";
+    private static final String INVALID_IMPORT_HEADER = "The first row must be the header ";
+    private static final String INVALID_IMPORT_ROW = "Row must contain a user ID, a wallet ID, an amount and an operation type";
+    private static final String INVALID_OPERATION_TYPE = "Operation type must be DEPOSIT or WITHDRAWAL";
+    private static final String FAILED_TO_READ_ENTRY_IMPORT = "Failed to read entry import";
+    private static final String FAILED_TO_IMPORT_ENTRIES = "Failed to import entries";
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+    private static final String CURSOR_SEPARATOR = "|";
     private static final BigDecimal ZERO_AMOUNT = BigDecimal.ZERO;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_TRANSFER_BATCH_SIZE = 10_000;
+    public static final int TRANSFER_BATCH_CHUNK_SIZE = 500;
+    public static final int ENTRY_IMPORT_CHUNK_SIZE = 1000;
+    public static final String[] ENTRY_IMPORT_HEADER = {"User ID", "Wallet ID", "Amount", "Operation Type"};
 
     private final UserRepository userRepository;
 
+    private final WalletRepository walletRepository;
+
+    private final EntryRepository entryRepository;
+
+    private final TransferCommandRepository transferCommandRepository;
+
+    private final TransferWorkerLockRepository transferWorkerLockRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransferRetryExecutor transferRetryExecutor;
+
+    private final WalletBalanceSnapshotService walletBalanceSnapshotService;
+
+    private final EntryMonthlyRollupService entryMonthlyRollupService;
+
+    private final EntryArchiveService entryArchiveService;
+
+    private final UserProfileCache userProfileCache;
+
+    private final ExchangeRateProvider exchangeRateProvider;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ConcurrencyMode concurrencyMode;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, WalletRepository walletRepository,
+                           EntryRepository entryRepository, TransferCommandRepository transferCommandRepository,
+                           TransferWorkerLockRepository transferWorkerLockRepository, EntityManager entityManager, TransactionTemplate transactionTemplate, TransferRetryExecutor transferRetryExecutor,
+                           WalletBalanceSnapshotService walletBalanceSnapshotService,
+                           EntryMonthlyRollupService entryMonthlyRollupService,
+                           EntryArchiveService entryArchiveService, UserProfileCache userProfileCache,
+                           ExchangeRateProvider exchangeRateProvider,
+                           @Value("${wallet.transfer.concurrency-mode:PESSIMISTIC}") ConcurrencyMode concurrencyMode) {
         this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.entryRepository = entryRepository;
+        this.transferCommandRepository = transferCommandRepository;
+        this.transferWorkerLockRepository = transferWorkerLockRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.transferRetryExecutor = transferRetryExecutor;
+        this.walletBalanceSnapshotService = walletBalanceSnapshotService;
+        this.entryMonthlyRollupService = entryMonthlyRollupService;
+        this.entryArchiveService = entryArchiveService;
+        this.userProfileCache = userProfileCache;
+        this.exchangeRateProvider = exchangeRateProvider;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.concurrencyMode = concurrencyMode;
     }
 
     /**
@@ -70,6 +191,7 @@ public class UserServiceImpl implements UserService {
      * @throws CustomException if an unexpected error occurs
      */
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         try {
             return userRepository.findById(id)
@@ -84,17 +206,72 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Retrieves all users.
+     * Retrieves the profile of a user, with their wallets but without entries.
+     * Profiles are served from the {@link UserProfileCache} and read from the database only on a miss,
+     * with a single query fetching the user, their roles and their wallets ({@link User#PROFILE_GRAPH}).
+     * Misses are read from the primary database: a profile loaded from a lagging replica right after an eviction
+     * would be cached stale for the whole TTL.
      *
-     * @return a list of all users
+     * @param id the ID of the user
+     * @return the profile of the user
+     * @throws ResourceNotFoundException if the user is not found
      * @throws CustomException if an unexpected error occurs
      */
     @Override
-    public List<User> getAllUsers() {
+    public ResponseUserDTO getUserProfile(Long id) {
+        return userProfileCache.get(id, userId -> transactionTemplate.execute(status -> readProfile(userId)));
+    }
+
+    private ResponseUserDTO readProfile(Long id) {
         try {
-            return userRepository.findAll();
+            return ResponseUserDTO.fromUser(userRepository.findProfileById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + id)));
+        } catch (ResourceNotFoundException ex) {
+            logger.warn("User not found with ID {}: {}", id, ex.getMessage());
+            throw ex;
         } catch (Exception ex) {
-            logger.error("Error fetching all users: {}", ex.getMessage(), ex);
+            logger.error("Error fetching profile of user ID {}: {}", id, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_FETCH_USER + id);
+        }
+    }
+
+    /**
+     * Retrieves a page of users ordered by ID, with their roles and wallet balances but not the wallet entries.
+     * The page is read with three queries whatever its size: the users, then their roles, then their wallets.
+     *
+     * @param cursor the cursor of the page, as returned with the previous page, or null for the first page
+     * @param size the maximum number of users in the page
+     * @return the page of users and the cursor of the next page, if there is one
+     * @throws IllegalArgumentException if the page size or the cursor is invalid
+     * @throws CustomException if an unexpected error occurs
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageDTO getUsersPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(INVALID_PAGE_SIZE + MAX_PAGE_SIZE);
+        }
+        Long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? null : Long.valueOf(decodeCursor(cursor)[0]);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid users cursor {}: {}", cursor, ex.getMessage());
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+        try {
+            List<User> users = userRepository.findPageAfter(afterId, PageRequest.of(0, size + 1));
+            String nextCursor = null;
+            if (users.size() > size) {
+                users = users.subList(0, size);
+                nextCursor = encodeCursor(String.valueOf(users.get(size - 1).getId()));
+            }
+            if (!users.isEmpty()) {
+                userRepository.fetchRoles(users);
+                userRepository.fetchWallets(users);
+            }
+            return new UserPageDTO(users.stream().map(ResponseUserDTO::fromUser).toList(), nextCursor);
+        } catch (Exception ex) {
+            logger.error("Error fetching users page after cursor {}: {}", cursor, ex.getMessage(), ex);
             throw new CustomException(FAILED_TO_FETCH_USERS);
         }
     }
@@ -119,6 +296,9 @@ public class UserServiceImpl implements UserService {
             user.setDateOfBirth(userDTO.getDateOfBirth());
 
             userRepository.save(user);
+            if (user.getId() != null) {
+                userProfileCache.evictAfterCommit(user.getId());
+            }
         } catch (Exception ex) {
             logger.error("Error creating user: {}", ex.getMessage(), ex);
             throw new CustomException(FAILED_TO_CREATE_USER);
@@ -126,18 +306,23 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Retrieves the wallets of a user by their ID.
+     * Retrieves the wallets of a user by their ID, with their entry counts but without their entries.
+     * The wallets are read with a single query; whether the user exists is checked only if they have none.
      *
      * @param id the ID of the user
-     * @return a list of wallets belonging to the user
+     * @return the views of the wallets belonging to the user, ordered by ID
      * @throws ResourceNotFoundException if the user is not found
      * @throws CustomException if an unexpected error occurs
      */
     @Override
-    public List<Wallet> getWallets(Long id) {
+    @Transactional(readOnly = true)
+    public List<WalletView> getWallets(Long id) {
         try {
-            User user = getUserById(id);
-            return user.getWallets();
+            List<WalletView> wallets = walletRepository.findViewsByUserId(id);
+            if (wallets.isEmpty() && !userRepository.existsById(id)) {
+                throw new ResourceNotFoundException(USER_NOT_FOUND + id);
+            }
+            return wallets;
         } catch (ResourceNotFoundException ex) {
             logger.warn("User with ID {} not found when fetching wallets: {}", id, ex.getMessage());
             throw ex;
@@ -162,18 +347,17 @@ public class UserServiceImpl implements UserService {
         try {
             User user = getUserById(userId);
 
-            boolean walletExists = user.getWallets().stream()
-                    .anyMatch(existingWallet -> existingWallet.getId().equals(wallet.getId()));
+            boolean walletExists = wallet.getId() != null
+                    && walletRepository.findByIdAndUserId(wallet.getId(), userId).isPresent();
             if (walletExists) {
                 throw new CustomException(FAILED_TO_ADD_WALLET + userId);
             }
 
             wallet.setUser(user);
-            user.getWallets().add(wallet);
 
-            userRepository.save(user);
-
-            return wallet;
+            Wallet savedWallet = walletRepository.save(wallet);
+            userProfileCache.evictAfterCommit(userId);
+            return savedWallet;
         } catch (ResourceNotFoundException ex) {
             logger.warn("User with ID {} not found: {}", userId, ex.getMessage());
             throw ex;
@@ -193,17 +377,10 @@ public class UserServiceImpl implements UserService {
      * @throws CustomException if an unexpected error occurs
      */
     @Override
+    @Transactional(readOnly = true)
     public Wallet getWalletByUserIdAndWalletId(Long userId, Long walletId) {
         try {
-            List<Wallet> wallets = userRepository.findWalletsByUserId(userId);
-
-            if (wallets == null || wallets.isEmpty()) {
-                throw new ResourceNotFoundException(NO_WALLETS_FOUND + userId);
-            }
-
-            return wallets.stream()
-                    .filter(wallet -> wallet.getId().equals(walletId))
-                    .findFirst()
+            return walletRepository.findByIdAndUserId(walletId, userId)
                     .orElseThrow(() -> new ResourceNotFoundException(
                             String.format(WALLET_NOT_FOUND, userId, walletId)
                     ));
@@ -212,37 +389,82 @@ public class UserServiceImpl implements UserService {
             throw ex;
         } catch (Exception ex) {
             logger.error("Unexpected error occurred while fetching wallet for userId {} and walletId {}", userId, walletId, ex);
-            throw new CustomException("An unexpected error occurred while fetching the wallet");
+            throw new CustomException(FAILED_TO_FETCH_WALLET);
+        }
+    }
+
+    /**
+     * Retrieves the view of a wallet by user ID and wallet ID, with its entry count but without its entries.
+     *
+     * @param userId the ID of the user
+     * @param walletId the ID of the wallet
+     * @return the view of the wallet
+     * @throws ResourceNotFoundException if the wallet is not found for the user
+     * @throws CustomException if an unexpected error occurs
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public WalletView getWalletView(Long userId, Long walletId) {
+        try {
+            return walletRepository.findViewByIdAndUserId(walletId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(String.format(WALLET_NOT_FOUND, userId, walletId)));
+        } catch (ResourceNotFoundException ex) {
+            logger.warn("Resource not found: {}", ex.getMessage());
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Unexpected error occurred while fetching wallet for userId {} and walletId {}", userId, walletId, ex);
+            throw new CustomException(FAILED_TO_FETCH_WALLET);
         }
     }
 
     /**
      * Calculates the entry summary for a wallet within a date range.
+     * The totals of the whole months within the range come from the monthly rollups and only the entries
+     * of the partial months at its edges are aggregated by the database; the entries themselves are read
+     * only when they are explicitly requested, archived ones included.
      *
      * @param wallet the wallet to calculate the summary for
      * @param startDate the start date of the range
      * @param endDate the end date of the range
+     * @param includeEntries whether the entries within the range should be part of the summary
      * @return the entry summary
      * @throws CustomException if an unexpected error occurs
      */
     @Override
-    public EntriesSummary calculateEntrySummary(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate) {
+    @Transactional(readOnly = true)
+    public EntriesSummary calculateEntrySummary(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate,
+                                                boolean includeEntries) {
         try {
-            List<Entry> filteredEntries = wallet.getEntries().stream()
-                    .filter(entry -> !entry.getDate().isBefore(startDate) && !entry.getDate().isAfter(endDate))
-                    .collect(Collectors.toList());
+            List<EntryTotal> totals = entryMonthlyRollupService.sumAmountsByTypeAndOperationType(wallet.getId(), startDate, endDate);
 
-            BigDecimal totalDebit = filteredEntries.stream()
-                    .filter(entry -> entry.getOperationType() == EntryOperationType.DEBIT)
-                    .map(Entry::getAmount)
-                    .reduce(ZERO_AMOUNT, BigDecimal::add);
+            CurrencyCode currency = wallet.getCurrency();
+            Map<EntryType, Money> debitByType = new EnumMap<>(EntryType.class);
+            Map<EntryType, Money> creditByType = new EnumMap<>(EntryType.class);
+            Money totalDebit = Money.zero(currency);
+            Money totalCredit = Money.zero(currency);
+            for (EntryTotal total : totals) {
+                Money amount = Money.of(total.getTotal(), currency);
+                if (total.getOperationType() == EntryOperationType.DEBIT) {
+                    totalDebit = totalDebit.plus(amount);
+                    debitByType.merge(total.getType(), amount, Money::plus);
+                } else if (total.getOperationType() == EntryOperationType.CREDIT) {
+                    totalCredit = totalCredit.plus(amount);
+                    creditByType.merge(total.getType(), amount, Money::plus);
+                }
+            }
 
-            BigDecimal totalCredit = filteredEntries.stream()
-                    .filter(entry -> entry.getOperationType() == EntryOperationType.CREDIT)
-                    .map(Entry::getAmount)
-                    .reduce(ZERO_AMOUNT, BigDecimal::add);
+            EntriesSummary summary = new EntriesSummary();
+            debitByType.forEach((type, amount) -> summary.getTotalDebitByType().put(type, amount.toBigDecimal()));
+            creditByType.forEach((type, amount) -> summary.getTotalCreditByType().put(type, amount.toBigDecimal()));
+            summary.setTotalDebit(totalDebit.toBigDecimal());
+            summary.setTotalCredit(totalCredit.toBigDecimal());
 
-            return new EntriesSummary(totalDebit, totalCredit, filteredEntries);
+            if (includeEntries) {
+                List<Entry> entries = entryArchiveService.findByWalletIdAndDateBetween(wallet.getId(), startDate, endDate);
+                entries.addAll(entryRepository.findByWalletIdAndDateBetweenOrderByDateAsc(wallet.getId(), startDate, endDate));
+                summary.setEntries(entries);
+            }
+            return summary;
         } catch (NullPointerException ex) {
             logger.error("NullPointerException occurred while calculating entry summary: {}", ex.getMessage(), ex);
             throw new CustomException(ERROR_CALCULATING_ENTRY_SUMMARY);
@@ -253,16 +475,77 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Retrieves entries for a wallet within a date range for CSV export.
+     * Retrieves a page of entries of a wallet, newest first, using keyset pagination on (date, id).
+     * Every page is read with an indexed range query, so the cost does not grow with the wallet history.
+     * Once the entries in the table run out, the page continues with the archived entries.
+     *
+     * @param wallet the wallet to retrieve entries for
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of entries in the page
+     * @param type the entry type to filter by, or null for all types
+     * @param operationType the operation type to filter by, or null for all operation types
+     * @return the page of entries and the cursor of the next page, if there is one
+     * @throws IllegalArgumentException if the page size or the cursor is invalid
+     * @throws CustomException if an unexpected error occurs
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EntryPageDTO getEntriesPage(Wallet wallet, String cursor, int size,
+                                       EntryType type, EntryOperationType operationType) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(INVALID_PAGE_SIZE + MAX_PAGE_SIZE);
+        }
+        try {
+            Pageable limit = PageRequest.of(0, size + 1);
+            List<Entry> entries;
+            LocalDateTime cursorDate = null;
+            Long cursorId = null;
+            if (cursor == null || cursor.isBlank()) {
+                entries = entryRepository.findLatestPage(wallet.getId(), type, operationType, limit);
+            } else {
+                String[] position = decodeCursor(cursor);
+                cursorDate = LocalDateTime.parse(position[0]);
+                cursorId = Long.valueOf(position[1]);
+                entries = entryRepository.findPageBefore(wallet.getId(), type, operationType, cursorDate, cursorId, limit);
+            }
+            if (entries.size() <= size) {
+                // archived entries are all older than the ones left in the table
+                Entry last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+                entries = new ArrayList<>(entries);
+                entries.addAll(entryArchiveService.findPageBefore(wallet.getId(), type, operationType,
+                        last == null ? cursorDate : last.getDate(), last == null ? cursorId : last.getId(),
+                        size + 1 - entries.size()));
+            }
+
+            if (entries.size() <= size) {
+                return new EntryPageDTO(entries, null);
+            }
+            List<Entry> page = new ArrayList<>(entries.subList(0, size));
+            return new EntryPageDTO(page, encodeCursor(page.get(size - 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException ex) {
+            logger.warn("Invalid cursor {} for wallet {}: {}", cursor, wallet.getId(), ex.getMessage());
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        } catch (Exception ex) {
+            logger.error("Error retrieving entries page for wallet {}: {}", wallet.getId(), ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_RETRIEVE_ENTRIES_PAGE);
+        }
+    }
+
+    /**
+     * Streams the entries of a wallet within a date range for CSV export.
+     * Rows are read through a database cursor and handed to the consumer one by one,
+     * so the memory used does not depend on the size of the range. Archived entries come first,
+     * read one segment at a time.
      *
      * @param wallet the wallet to retrieve entries for
      * @param startDate the start date of the range
      * @param endDate the end date of the range
-     * @return a list of entries
+     * @param consumer the consumer receiving each entry in date order
      * @throws CustomException if an unexpected error occurs
      */
     @Override
-    public List<Entry> getEntriesForCSV(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate) {
+    @Transactional(readOnly = true)
+    public void streamEntriesForCSV(Wallet wallet, LocalDateTime startDate, LocalDateTime endDate, Consumer<Entry> consumer) {
         try {
             if (wallet == null) {
                 throw new CustomException(WALLET_CANNOT_BE_NULL);
@@ -274,11 +557,15 @@ public class UserServiceImpl implements UserService {
                 throw new CustomException(START_DATE_AFTER_END_DATE);
             }
 
-            return wallet.getEntries().stream()
-                    .filter(entry -> !entry.getDate().isBefore(startDate) && !entry.getDate().isAfter(endDate))
-                    .collect(Collectors.toList());
+            entryArchiveService.forEachByWalletIdAndDateBetween(wallet.getId(), startDate, endDate, consumer);
+            try (Stream<Entry> entries = entryRepository.streamByWalletIdAndDateBetween(wallet.getId(), startDate, endDate)) {
+                entries.forEach(entry -> {
+                    consumer.accept(entry);
+                    entityManager.detach(entry);
+                });
+            }
         } catch (Exception ex) {
-            logger.error("Error retrieving entries for CSV: {}", ex.getMessage(), ex);
+            logger.error("Error streaming entries for CSV: {}", ex.getMessage(), ex);
             throw new CustomException(FAILED_TO_RETRIEVE_ENTRIES);
         }
     }
@@ -295,11 +582,9 @@ public class UserServiceImpl implements UserService {
     public void depositOrWithdrawal(DepositWithdrawalDTO depositWithdrawalDTO) {
         try {
             Entry entry = new Entry();
-            User user = getUserById(depositWithdrawalDTO.getUserId());
-            Wallet wallet = user.getWallets().stream()
-                    .filter(w -> w.getId().equals(depositWithdrawalDTO.getWalletId()))
-                    .findFirst()
-                    .orElseThrow(() -> new ResourceNotFoundException(WALLET_NOT_FOUND + depositWithdrawalDTO.getWalletId()));
+            Wallet wallet = walletRepository.findByIdAndUserId(depositWithdrawalDTO.getWalletId(), depositWithdrawalDTO.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            String.format(WALLET_NOT_FOUND, depositWithdrawalDTO.getUserId(), depositWithdrawalDTO.getWalletId())));
 
             entry.setAmount(depositWithdrawalDTO.getAmount());
             entry.setFromCurrency(wallet.getCurrency().toString());
@@ -321,11 +606,10 @@ public class UserServiceImpl implements UserService {
                 entry.setOperationType(EntryOperationType.CREDIT);
                 handleWithdrawal(wallet, entry);
             }
-            userRepository.save(user);
         } catch (ResourceNotFoundException ex) {
             logger.warn("Resource not found: {}", ex.getMessage());
             throw ex;
-        } catch (CustomException ex) {
+        } catch (CustomException | InsufficientFundsException ex) {
             logger.warn("Business rule violation: {}", ex.getMessage());
             throw ex;
         } catch (Exception ex) {
@@ -337,10 +621,16 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Transfers an amount from one wallet to another.
+     * <p>
+     * Both wallets are read in ascending id order, with {@code SELECT ... FOR UPDATE} in
+     * {@link ConcurrencyMode#PESSIMISTIC} mode, and their balances are written back with a version check.
+     * Lost races surface as a {@link ConcurrencyFailureException} so that the caller can retry the transfer
+     * in a new transaction.
      *
      * @param transferDTO the data transfer object containing transfer details
      * @throws CustomException if a business rule violation occurs
      * @throws InsufficientFundsException if there are insufficient funds for the transfer
+     * @throws ConcurrencyFailureException if a concurrent update or a deadlock aborted the transfer
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -353,55 +643,34 @@ public class UserServiceImpl implements UserService {
                 throw new CustomException(INVALID_ENTRY_AMOUNT);
             }
 
-            User user = userRepository.findById(transferDTO.getUserId())
-                    .orElseThrow(() -> new CustomException(RECEIVER_NOT_FOUND));
-            Wallet wallet = user.getWallets().stream()
-                    .filter(w -> w.getId().equals(transferDTO.getWalletId()))
-                    .findFirst()
-                    .orElseThrow(() -> new ResourceNotFoundException(WALLET_NOT_FOUND + transferDTO.getWalletId()));
-
-            if (isEntryAmountBiggerThanTheCurrentBalance1(transferDTO.getAmount(), wallet.getBalance())) {
-                throw new InsufficientFundsException(WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE);
+            Wallet wallet;
+            Wallet receiverWallet;
+            if (transferDTO.getWalletId() < transferDTO.getReceiverWalletId()) {
+                wallet = findSenderWallet(transferDTO);
+                receiverWallet = findReceiverWallet(transferDTO);
+            } else {
+                receiverWallet = findReceiverWallet(transferDTO);
+                wallet = findSenderWallet(transferDTO);
             }
-            User receiver = userRepository.findById(transferDTO.getReceiverId())
-                    .orElseThrow(() -> new CustomException(RECEIVER_NOT_FOUND));
-            Wallet receiverWallet = receiver.getWallets().stream()
-                    .filter(w -> w.getId().equals(transferDTO.getReceiverWalletId()))
-                    .findFirst()
-                    .orElseThrow(() -> new CustomException(RECEIVER_WALLET_NOT_FOUND));
 
             BigDecimal amountFrom = transferDTO.getAmount();
+            // checked on the entity rather than with decreaseBalanceIfSufficient, as withdrawals do: the sender is
+            // locked (PESSIMISTIC) or written back with a version check (OPTIMISTIC), so the balance read here is
+            // the one the debit applies to
+            if (wallet.getBalance().compareTo(amountFrom) < 0) {
+                throw new InsufficientFundsException(WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE);
+            }
 
-            BigDecimal amountTo = CurrencyConverter.convert(amountFrom,
-                    wallet.getCurrency().toString(),
-                    receiverWallet.getCurrency().toString());
+            ExchangeRateSnapshot rates = exchangeRateProvider.getRates();
+            BigDecimal amountTo = rates.convert(amountFrom, wallet.getCurrency(), receiverWallet.getCurrency());
 
-            Entry entry = new Entry();
-            entry.setAmount(amountFrom);
-            entry.setDate(LocalDateTime.now());
-            entry.setType(EntryType.TRANSFER);
-            entry.setOperationType(EntryOperationType.CREDIT);
-            entry.setWallet(wallet);
-            entry.setFromCurrency(wallet.getCurrency().toString());
-            entry.setToCurrency(receiverWallet.getCurrency().toString());
-
-            Entry receivingEntry = new Entry();
-            receivingEntry.setAmount(amountTo);
-            receivingEntry.setDate(LocalDateTime.now());
-            receivingEntry.setType(EntryType.TRANSFER);
-            receivingEntry.setOperationType(EntryOperationType.DEBIT);
-            receivingEntry.setWallet(receiverWallet);
-            receivingEntry.setFromCurrency(wallet.getCurrency().toString());
-            receivingEntry.setToCurrency(receiverWallet.getCurrency().toString());
-
-            wallet.getEntries().add(entry);
-            receiverWallet.getEntries().add(receivingEntry);
+            List<Entry> entries = transferEntries(wallet, receiverWallet, amountFrom, amountTo, rates.getVersion());
             wallet.setBalance(wallet.getBalance().subtract(amountFrom));
             receiverWallet.setBalance(receiverWallet.getBalance().add(amountTo));
-
-            userRepository.save(user);
-            userRepository.save(receiver);
-        } catch (EntityNotFoundException | InsufficientFundsException ex) {
+            // write the balances before the entries so row locks are taken in id order, not FK-check order
+            walletRepository.flush();
+            appendEntries(entries);
+        } catch (EntityNotFoundException | InsufficientFundsException | ConcurrencyFailureException ex) {
             logger.error("Error processing transfer: {}", ex.getMessage());
             throw ex;
         } catch (Exception ex) {
@@ -410,6 +679,556 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * Applies many transfers, reporting the outcome of each one instead of failing the whole batch.
+     * <p>
+     * Invalid transfers are rejected up front. The rest are applied in chunks of {@value #TRANSFER_BATCH_CHUNK_SIZE},
+     * each in its own transaction: the chunk's wallets are read (or locked, in ascending id order) with one query,
+     * the transfers are applied to them in request order, and every touched wallet is written back once.
+     * A chunk that still fails after the concurrency retries marks all of its transfers as failed.
+     *
+     * @param transfers the transfers to apply, in order
+     * @return the number of completed and failed transfers and the result of each transfer, by position in the request
+     * @throws IllegalArgumentException if the batch is empty or larger than {@value #MAX_TRANSFER_BATCH_SIZE}
+     */
+    @Override
+    public BatchTransferResultDTO transferBatch(List<TransferDTO> transfers) {
+        if (transfers == null || transfers.isEmpty() || transfers.size() > MAX_TRANSFER_BATCH_SIZE) {
+            throw new IllegalArgumentException(INVALID_BATCH_SIZE + MAX_TRANSFER_BATCH_SIZE);
+        }
+        TransferResultDTO[] results = new TransferResultDTO[transfers.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            String error = validateBatchTransfer(transfers.get(i));
+            if (error != null) {
+                results[i] = new TransferResultDTO(i, TransferStatus.FAILED, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += TRANSFER_BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + TRANSFER_BATCH_CHUNK_SIZE, accepted.size()));
+            try {
+                transferRetryExecutor.execute(() -> transactionTemplate.executeWithoutResult(
+                        status -> applyTransferChunk(transfers, chunk, results)));
+            } catch (Exception ex) {
+                logger.error("Error applying transfer batch chunk of {} transfers: {}", chunk.size(), ex.getMessage(), ex);
+                for (Integer index : chunk) {
+                    results[index] = new TransferResultDTO(index, TransferStatus.FAILED, FAILED_TO_APPLY_TRANSFER_BATCH);
+                }
+            }
+        }
+
+        int completed = (int) Arrays.stream(results).filter(result -> result.getStatus() == TransferStatus.COMPLETED).count();
+        return new BatchTransferResultDTO(completed, results.length - completed, Arrays.asList(results));
+    }
+
+    private static String validateBatchTransfer(TransferDTO transfer) {
+        if (transfer == null || transfer.getUserId() == null || transfer.getWalletId() == null
+                || transfer.getReceiverId() == null || transfer.getReceiverWalletId() == null
+                || transfer.getAmount() == null) {
+            return INVALID_TRANSFER;
+        }
+        if (transfer.getWalletId().equals(transfer.getReceiverWalletId())) {
+            return CANNOT_TRANSFER_SAME_WALLET;
+        }
+        if (transfer.getAmount().compareTo(ZERO_AMOUNT) <= 0) {
+            return INVALID_ENTRY_AMOUNT;
+        }
+        return null;
+    }
+
+    private void applyTransferChunk(List<TransferDTO> transfers, List<Integer> chunk, TransferResultDTO[] results) {
+        Set<Long> walletIds = new TreeSet<>();
+        for (Integer index : chunk) {
+            walletIds.add(transfers.get(index).getWalletId());
+            walletIds.add(transfers.get(index).getReceiverWalletId());
+        }
+        Map<Long, Wallet> wallets = findWalletsForUpdate(walletIds);
+        RunningBalances balances = new RunningBalances(wallets.values());
+        ExchangeRateSnapshot rates = exchangeRateProvider.getRates();
+
+        List<Entry> entries = new ArrayList<>();
+        for (Integer index : chunk) {
+            TransferDTO transfer = transfers.get(index);
+            Wallet wallet = wallets.get(transfer.getWalletId());
+            Wallet receiverWallet = wallets.get(transfer.getReceiverWalletId());
+            String error = null;
+            if (!isOwnedBy(wallet, transfer.getUserId())) {
+                error = String.format(WALLET_NOT_FOUND, transfer.getUserId(), transfer.getWalletId());
+            } else if (!isOwnedBy(receiverWallet, transfer.getReceiverId())) {
+                error = RECEIVER_WALLET_NOT_FOUND;
+            } else if (!balances.covers(wallet, transfer.getAmount())) {
+                error = WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE;
+            }
+            if (error != null) {
+                results[index] = new TransferResultDTO(index, TransferStatus.FAILED, error);
+                continue;
+            }
+            BigDecimal amountTo = rates.convert(transfer.getAmount(), wallet.getCurrency(), receiverWallet.getCurrency());
+            entries.addAll(transferEntries(wallet, receiverWallet, transfer.getAmount(), amountTo, rates.getVersion()));
+            balances.subtract(wallet, transfer.getAmount());
+            balances.add(receiverWallet, amountTo);
+            results[index] = new TransferResultDTO(index, TransferStatus.COMPLETED, null);
+        }
+        balances.writeBack(wallets.values());
+
+        walletRepository.flush();
+        appendEntries(entries);
+        flushAndDetachChunk();
+    }
+
+    /**
+     * Accepts a transfer for asynchronous execution by writing it to the transfer outbox.
+     * <p>
+     * Only the transfer itself is validated; the wallets are not read, so accepting a transfer is a single insert.
+     * Ownership and balance are checked when the transfer is applied by {@link #processTransferCommands}.
+     *
+     * @param transferDTO the data transfer object containing transfer details
+     * @return the pending transfer command
+     * @throws IllegalArgumentException if the transfer data is invalid
+     * @throws CustomException if an unexpected error occurs
+     */
+    @Override
+    public TransferCommand submitTransfer(TransferDTO transferDTO) {
+        String error = validateBatchTransfer(transferDTO);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        try {
+            return transferCommandRepository.save(new TransferCommand(transferDTO));
+        } catch (Exception ex) {
+            logger.error("Error submitting transfer from wallet {}: {}", transferDTO.getWalletId(), ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_SUBMIT_TRANSFER);
+        }
+    }
+
+    /**
+     * Retrieves a transfer accepted for asynchronous execution, with its status.
+     *
+     * @param id the ID of the transfer command
+     * @return the transfer command
+     * @throws ResourceNotFoundException if the transfer is not found
+     * @throws CustomException if an unexpected error occurs
+     */
+    @Override
+    public TransferCommand getTransferCommand(Long id) {
+        try {
+            return transferCommandRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(TRANSFER_NOT_FOUND + id));
+        } catch (ResourceNotFoundException ex) {
+            logger.warn("Resource not found: {}", ex.getMessage());
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Error fetching transfer by ID {}: {}", id, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_FETCH_TRANSFER + id);
+        }
+    }
+
+    /**
+     * Applies the oldest pending transfer commands of one worker's share of the sender wallets.
+     * <p>
+     * A worker owns the sender wallets whose id modulo {@code workers} is its number, so the commands of a wallet
+     * are applied by one worker, in the order they were accepted. The transaction first claims the worker's
+     * {@link TransferWorkerLock} row with {@code FOR UPDATE SKIP LOCKED}, so while the same worker of another
+     * instance holds it this poll takes nothing. The batch is applied like a chunk of {@link #transferBatch}, and
+     * the status of every command is written in the same transaction, so a transfer is applied exactly when its
+     * command is marked completed. If the commands collided with concurrent updates the transaction is rolled back
+     * and retried. If the database failed (a connection lost or not obtained in time), the commands stay pending
+     * for the next poll; any other failure applies them again one at a time, and marks failed only the command
+     * that still fails on its own.
+     *
+     * @param worker the number of the worker, from 0 to {@code workers - 1}
+     * @param workers the number of workers
+     * @param batchSize the maximum number of commands to apply
+     * @return the number of commands taken from the outbox
+     */
+    @Override
+    public int processTransferCommands(int worker, int workers, int batchSize) {
+        List<Long> claimed = new ArrayList<>();
+        try {
+            transferRetryExecutor.execute(() -> transactionTemplate.executeWithoutResult(status -> applyTransferCommands(
+                    worker, () -> transferCommandRepository.findPending(worker, workers, PageRequest.of(0, batchSize)),
+                    claimed)));
+            return claimed.size();
+        } catch (ConcurrencyFailureException ex) {
+            logger.warn("Transfer commands of worker {} kept colliding with concurrent updates: {}", worker, ex.getMessage());
+            return 0;
+        } catch (Exception ex) {
+            if (claimed.isEmpty() || isDatabaseFailure(ex)) {
+                logger.error("Error applying transfer commands of worker {}, left pending until the next poll: {}",
+                        worker, ex.getMessage(), ex);
+                return 0;
+            }
+            logger.error("Error applying {} transfer commands of worker {}, applying them one at a time: {}",
+                    claimed.size(), worker, ex.getMessage(), ex);
+            return applyTransferCommandsOneByOne(worker, List.copyOf(claimed));
+        }
+    }
+
+    private int applyTransferCommandsOneByOne(int worker, List<Long> ids) {
+        int processed = 0;
+        for (Long id : ids) {
+            List<Long> claimed = new ArrayList<>();
+            try {
+                transferRetryExecutor.execute(() -> transactionTemplate.executeWithoutResult(status -> applyTransferCommands(
+                        worker, () -> transferCommandRepository.findById(id)
+                                .filter(command -> command.getStatus() == TransferStatus.PENDING)
+                                .map(List::of)
+                                .orElse(List.of()),
+                        claimed)));
+                processed += claimed.size();
+            } catch (Exception ex) {
+                if (ex instanceof ConcurrencyFailureException || isDatabaseFailure(ex)) {
+                    logger.error("Error applying transfer command {}, left pending with the rest of its batch: {}",
+                            id, ex.getMessage(), ex);
+                    break;
+                }
+                logger.error("Error applying transfer command {}: {}", id, ex.getMessage(), ex);
+                processed += transferCommandRepository.markProcessed(List.of(id), TransferStatus.FAILED,
+                        FAILED_TO_APPLY_TRANSFER, LocalDateTime.now());
+            }
+        }
+        return processed;
+    }
+
+    // failures of the database rather than of the commands, which a later attempt is expected to get past
+    private static boolean isDatabaseFailure(Exception ex) {
+        return ex instanceof TransientDataAccessException || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException || ex instanceof TransactionException;
+    }
+
+    private void applyTransferCommands(int worker, Supplier<List<TransferCommand>> pending, List<Long> claimed) {
+        claimed.clear();
+        if (!claimWorker(worker)) {
+            return;
+        }
+        List<TransferCommand> commands = pending.get();
+        if (commands.isEmpty()) {
+            return;
+        }
+        List<TransferDTO> transfers = new ArrayList<>(commands.size());
+        for (TransferCommand command : commands) {
+            claimed.add(command.getId());
+            transfers.add(command.toTransfer());
+        }
+        TransferResultDTO[] results = new TransferResultDTO[commands.size()];
+        applyTransferChunk(transfers, IntStream.range(0, commands.size()).boxed().toList(), results);
+
+        // one update per outcome rather than one per command
+        List<Long> completed = new ArrayList<>();
+        Map<String, List<Long>> failedByMessage = new HashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].getStatus() == TransferStatus.COMPLETED) {
+                completed.add(claimed.get(i));
+            } else {
+                failedByMessage.computeIfAbsent(results[i].getMessage(), message -> new ArrayList<>()).add(claimed.get(i));
+            }
+        }
+        LocalDateTime processedAt = LocalDateTime.now();
+        int marked = completed.isEmpty() ? 0
+                : transferCommandRepository.markProcessed(completed, TransferStatus.COMPLETED, null, processedAt);
+        for (Map.Entry<String, List<Long>> failed : failedByMessage.entrySet()) {
+            marked += transferCommandRepository.markProcessed(failed.getValue(), TransferStatus.FAILED, failed.getKey(),
+                    processedAt);
+        }
+        if (marked != claimed.size()) {
+            throw new OptimisticLockingFailureException(TRANSFERS_ALREADY_PROCESSED);
+        }
+    }
+
+    // row locks rather than SKIP LOCKED on the commands themselves: skipping a wallet's locked commands would let
+    // another instance apply its later ones first
+    private boolean claimWorker(int worker) {
+        if (transferWorkerLockRepository.findByWorkerForUpdateSkipLocked(worker).isPresent()) {
+            return true;
+        }
+        if (transferWorkerLockRepository.existsById(worker)) {
+            return false;
+        }
+        // the inserted row stays locked until the transaction ends
+        transferWorkerLockRepository.saveAndFlush(new TransferWorkerLock(worker));
+        return true;
+    }
+
+    /**
+     * Imports deposits and withdrawals from a CSV file with the columns of {@link #ENTRY_IMPORT_HEADER}.
+     * <p>
+     * The file is read one row at a time and never held in memory. Rows that break the deposit/withdrawal rules
+     * are rejected without touching the database; the rest are applied in chunks of {@value #ENTRY_IMPORT_CHUNK_SIZE},
+     * each in its own transaction, with the chunk's wallets read (or locked, in ascending id order) by one query
+     * and the entries written in batches. Chunks are committed as they are applied, so a later failure does not
+     * undo rows that were already imported.
+     *
+     * @param csv the CSV content, starting with the header row
+     * @param rejectedRowConsumer receives every rejected row as its row number, its four values and the reason
+     * @return the number of imported and rejected rows and the import throughput in rows per second
+     * @throws IllegalArgumentException if the header row is missing or does not match
+     * @throws CustomException if the CSV content cannot be read
+     */
+    @Override
+    public EntryImportResultDTO importEntriesFromCSV(Reader csv, Consumer<String[]> rejectedRowConsumer) {
+        long startedAt = System.nanoTime();
+        long rows = 0;
+        long rejected = 0;
+        try (CSVReader reader = new CSVReader(csv)) {
+            if (!isEntryImportHeader(reader.readNext())) {
+                throw new IllegalArgumentException(INVALID_IMPORT_HEADER + String.join(",", ENTRY_IMPORT_HEADER));
+            }
+            List<EntryImportRow> chunk = new ArrayList<>(ENTRY_IMPORT_CHUNK_SIZE);
+            String[] values;
+            while ((values = reader.readNext()) != null) {
+                if (values.length == 1 && values[0].isBlank()) {
+                    continue;
+                }
+                EntryImportRow row = parseEntryImportRow(++rows, values);
+                if (row.error() != null) {
+                    rejectedRowConsumer.accept(row.rejectedRow(row.error()));
+                    rejected++;
+                } else {
+                    chunk.add(row);
+                }
+                if (chunk.size() == ENTRY_IMPORT_CHUNK_SIZE) {
+                    rejected += importEntryChunk(chunk, rejectedRowConsumer);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                rejected += importEntryChunk(chunk, rejectedRowConsumer);
+            }
+        } catch (IOException | CsvValidationException ex) {
+            logger.error("Error reading entry import after {} rows: {}", rows, ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_READ_ENTRY_IMPORT);
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        long rowsPerSecond = rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        logger.info("Imported {} of {} entry rows ({} rejected) at {} rows/s", rows - rejected, rows, rejected, rowsPerSecond);
+        return new EntryImportResultDTO(rows - rejected, rejected, rowsPerSecond);
+    }
+
+    private static boolean isEntryImportHeader(String[] header) {
+        if (header == null || header.length != ENTRY_IMPORT_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            String column = header[i].replace(BYTE_ORDER_MARK, "").trim();
+            if (!ENTRY_IMPORT_HEADER[i].equalsIgnoreCase(column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static EntryImportRow parseEntryImportRow(long number, String[] values) {
+        if (values.length != ENTRY_IMPORT_HEADER.length) {
+            return EntryImportRow.invalid(number, values, INVALID_IMPORT_ROW);
+        }
+        try {
+            Long userId = Long.valueOf(values[0].trim());
+            Long walletId = Long.valueOf(values[1].trim());
+            BigDecimal amount = new BigDecimal(values[2].trim());
+            String operationType = values[3].trim();
+            if (!operationType.equals(EntryType.DEPOSIT.toString()) && !operationType.equals(EntryType.WITHDRAWAL.toString())) {
+                return EntryImportRow.invalid(number, values, INVALID_OPERATION_TYPE);
+            }
+            if (amount.compareTo(ZERO_AMOUNT) <= 0) {
+                return EntryImportRow.invalid(number, values, AMOUNT_MUST_BE_POSITIVE);
+            }
+            return new EntryImportRow(number, values, userId, walletId, amount, EntryType.valueOf(operationType), null);
+        } catch (NumberFormatException ex) {
+            return EntryImportRow.invalid(number, values, INVALID_IMPORT_ROW);
+        }
+    }
+
+    private long importEntryChunk(List<EntryImportRow> chunk, Consumer<String[]> rejectedRowConsumer) {
+        List<String[]> rejectedRows = new ArrayList<>();
+        try {
+            transferRetryExecutor.execute(() -> {
+                rejectedRows.clear();
+                transactionTemplate.executeWithoutResult(status -> rejectedRows.addAll(applyEntryImportChunk(chunk)));
+            });
+        } catch (Exception ex) {
+            logger.error("Error importing chunk of {} entry rows: {}", chunk.size(), ex.getMessage(), ex);
+            rejectedRows.clear();
+            chunk.forEach(row -> rejectedRows.add(row.rejectedRow(FAILED_TO_IMPORT_ENTRIES)));
+        }
+        rejectedRows.forEach(rejectedRowConsumer);
+        return rejectedRows.size();
+    }
+
+    private List<String[]> applyEntryImportChunk(List<EntryImportRow> chunk) {
+        Set<Long> walletIds = new TreeSet<>();
+        chunk.forEach(row -> walletIds.add(row.walletId()));
+        Map<Long, Wallet> wallets = findWalletsForUpdate(walletIds);
+        RunningBalances balances = new RunningBalances(wallets.values());
+
+        List<String[]> rejectedRows = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>(chunk.size());
+        for (EntryImportRow row : chunk) {
+            Wallet wallet = wallets.get(row.walletId());
+            if (!isOwnedBy(wallet, row.userId())) {
+                rejectedRows.add(row.rejectedRow(String.format(WALLET_NOT_FOUND, row.userId(), row.walletId())));
+                continue;
+            }
+            Entry entry = new Entry();
+            entry.setAmount(row.amount());
+            entry.setFromCurrency(wallet.getCurrency().toString());
+            entry.setToCurrency(wallet.getCurrency().toString());
+            entry.setType(row.type());
+            entry.setDate(LocalDateTime.now());
+            entry.setWallet(wallet);
+            if (row.type() == EntryType.WITHDRAWAL) {
+                if (!balances.covers(wallet, row.amount())) {
+                    rejectedRows.add(row.rejectedRow(WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE));
+                    continue;
+                }
+                entry.setOperationType(EntryOperationType.CREDIT);
+                balances.subtract(wallet, row.amount());
+            } else {
+                entry.setOperationType(EntryOperationType.DEBIT);
+                balances.add(wallet, row.amount());
+            }
+            entries.add(entry);
+        }
+        balances.writeBack(wallets.values());
+
+        walletRepository.flush();
+        appendEntries(entries);
+        flushAndDetachChunk();
+        return rejectedRows;
+    }
+
+    private void flushAndDetachChunk() {
+        // the request-scoped persistence context outlives the chunk transactions; without this every
+        // flush would dirty-check all wallets and entries of the earlier chunks again
+        entryRepository.flush();
+        entityManager.clear();
+    }
+
+    private Map<Long, Wallet> findWalletsForUpdate(Set<Long> walletIds) {
+        List<Wallet> wallets = concurrencyMode == ConcurrencyMode.PESSIMISTIC
+                ? walletRepository.findAllByIdInOrderByIdForUpdate(walletIds)
+                : walletRepository.findAllByIdInOrderById(walletIds);
+        return wallets.stream().collect(Collectors.toMap(Wallet::getId, Function.identity()));
+    }
+
+    private record EntryImportRow(long number, String[] values, Long userId, Long walletId, BigDecimal amount,
+                                  EntryType type, String error) {
+
+        static EntryImportRow invalid(long number, String[] values, String error) {
+            return new EntryImportRow(number, values, null, null, null, null, error);
+        }
+
+        String[] rejectedRow(String reason) {
+            String[] rejectedRow = new String[ENTRY_IMPORT_HEADER.length + 2];
+            rejectedRow[0] = String.valueOf(number);
+            for (int i = 0; i < ENTRY_IMPORT_HEADER.length; i++) {
+                rejectedRow[i + 1] = i < values.length ? values[i] : "";
+            }
+            rejectedRow[rejectedRow.length - 1] = reason;
+            return rejectedRow;
+        }
+    }
+
+    /**
+     * The balances of the wallets of a chunk, updated in place while the chunk is applied and written back to the
+     * wallets once at the end.
+     */
+    private static final class RunningBalances {
+
+        private final Map<Wallet, Money> balances = new IdentityHashMap<>();
+
+        RunningBalances(Collection<Wallet> wallets) {
+            wallets.forEach(wallet -> balances.put(wallet, balanceOf(wallet)));
+        }
+
+        boolean covers(Wallet wallet, BigDecimal amount) {
+            return !balances.get(wallet).isLessThan(Money.of(amount, wallet.getCurrency()));
+        }
+
+        void add(Wallet wallet, BigDecimal amount) {
+            balances.put(wallet, balances.get(wallet).plus(Money.of(amount, wallet.getCurrency())));
+        }
+
+        void subtract(Wallet wallet, BigDecimal amount) {
+            balances.put(wallet, balances.get(wallet).minus(Money.of(amount, wallet.getCurrency())));
+        }
+
+        void writeBack(Collection<Wallet> wallets) {
+            for (Wallet wallet : wallets) {
+                Money balance = balances.get(wallet);
+                if (!balance.equals(balanceOf(wallet))) {
+                    wallet.setBalance(balance.toBigDecimal());
+                }
+            }
+        }
+
+        private static Money balanceOf(Wallet wallet) {
+            return Money.of(wallet.getBalance(), wallet.getCurrency());
+        }
+    }
+
+    private static boolean isOwnedBy(Wallet wallet, Long userId) {
+        return wallet != null && wallet.getUser() != null && userId.equals(wallet.getUser().getId());
+    }
+
+    private static List<Entry> transferEntries(Wallet wallet, Wallet receiverWallet, BigDecimal amountFrom,
+                                               BigDecimal amountTo, long rateVersion) {
+        Entry entry = new Entry();
+        entry.setAmount(amountFrom);
+        entry.setDate(LocalDateTime.now());
+        entry.setType(EntryType.TRANSFER);
+        entry.setOperationType(EntryOperationType.CREDIT);
+        entry.setWallet(wallet);
+        entry.setFromCurrency(wallet.getCurrency().toString());
+        entry.setToCurrency(receiverWallet.getCurrency().toString());
+        entry.setRateVersion(rateVersion);
+
+        Entry receivingEntry = new Entry();
+        receivingEntry.setAmount(amountTo);
+        receivingEntry.setDate(LocalDateTime.now());
+        receivingEntry.setType(EntryType.TRANSFER);
+        receivingEntry.setOperationType(EntryOperationType.DEBIT);
+        receivingEntry.setWallet(receiverWallet);
+        receivingEntry.setFromCurrency(wallet.getCurrency().toString());
+        receivingEntry.setToCurrency(receiverWallet.getCurrency().toString());
+        receivingEntry.setRateVersion(rateVersion);
+        return List.of(entry, receivingEntry);
+    }
+
+    private Wallet findSenderWallet(TransferDTO transferDTO) {
+        return findWalletForTransfer(transferDTO.getWalletId(), transferDTO.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format(WALLET_NOT_FOUND, transferDTO.getUserId(), transferDTO.getWalletId())));
+    }
+
+    private Wallet findReceiverWallet(TransferDTO transferDTO) {
+        return findWalletForTransfer(transferDTO.getReceiverWalletId(), transferDTO.getReceiverId())
+                .orElseThrow(() -> new CustomException(RECEIVER_WALLET_NOT_FOUND));
+    }
+
+    private Optional<Wallet> findWalletForTransfer(Long walletId, Long userId) {
+        if (concurrencyMode == ConcurrencyMode.PESSIMISTIC) {
+            return walletRepository.findByIdAndUserIdForUpdate(walletId, userId);
+        }
+        return walletRepository.findByIdAndUserId(walletId, userId);
+    }
+
+    private static String encodeCursor(Entry entry) {
+        return encodeCursor(entry.getDate() + CURSOR_SEPARATOR + entry.getId());
+    }
+
+    private static String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        return position.split(Pattern.quote(CURSOR_SEPARATOR), 2);
+    }
+
     private static void verifyAmountOfEntryIsPositive(Entry entry) {
         if (entry.getAmount().compareTo(ZERO_AMOUNT) <= 0) {
             throw new CustomException(AMOUNT_MUST_BE_POSITIVE);
@@ -418,8 +1237,8 @@ public class UserServiceImpl implements UserService {
 
     private void handleDeposit(Wallet wallet, Entry entry) {
         try {
-            BigDecimal updatedBalance = wallet.getBalance().add(entry.getAmount());
-            updateWallet(wallet, entry, updatedBalance);
+            walletRepository.increaseBalance(wallet.getId(), entry.getAmount());
+            appendEntries(List.of(entry));
         } catch (Exception ex) {
             logger.error("Error handling deposit: {}", ex.getMessage(), ex);
             throw new CustomException(FAILED_TO_HANDLE_DEPOSIT);
@@ -428,12 +1247,9 @@ public class UserServiceImpl implements UserService {
 
     private void handleWithdrawal(Wallet wallet, Entry entry) {
         try {
-            if (isEntryAmountBiggerThanTheCurrentBalance1(entry.getAmount(), wallet.getBalance())) {
-                throw new CustomException(WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE);
-            }
-            BigDecimal updatedBalance = wallet.getBalance().subtract(entry.getAmount());
-            updateWallet(wallet, entry, updatedBalance);
-        } catch (CustomException ex) {
+            withdrawFromBalance(wallet, entry.getAmount());
+            appendEntries(List.of(entry));
+        } catch (InsufficientFundsException ex) {
             logger.warn("Withdrawal rule violation: {}", ex.getMessage());
             throw ex;
         } catch (Exception ex) {
@@ -442,14 +1258,22 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    private static void updateWallet(Wallet wallet, Entry entry, BigDecimal updatedBalance) {
-        wallet.setBalance(updatedBalance);
-        entry.setWallet(wallet);
-        wallet.getEntries().add(entry);
+    private void appendEntries(List<Entry> entries) {
+        entryRepository.saveAll(entries);
+        walletBalanceSnapshotService.recordClosingBalances(entries);
+        entryMonthlyRollupService.recordEntries(entries);
+        // the cached profiles show the wallet balances that these entries changed
+        userProfileCache.evictAfterCommit(entries.stream()
+                .map(entry -> entry.getWallet().getUser())
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .collect(Collectors.toSet()));
     }
 
-    private static boolean isEntryAmountBiggerThanTheCurrentBalance1(BigDecimal entryAmount, BigDecimal currentBalance) {
-        return currentBalance.compareTo(entryAmount) < 0;
+    private void withdrawFromBalance(Wallet wallet, BigDecimal amount) {
+        if (walletRepository.decreaseBalanceIfSufficient(wallet.getId(), amount) == 0) {
+            throw new InsufficientFundsException(WITHDRAWAL_AMOUNT_EXCEEDS_BALANCE);
+        }
     }
 
 }
@@ -0,0 +1,232 @@
+package com.wallet.wallet_api.services;
+
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.WalletBalanceSnapshot;
+import com.wallet.wallet_api.entities.dto.DailyBalanceDTO;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletBalanceSnapshotRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.DailyBalanceChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a closing-balance snapshot per wallet and day, and answers balance-at-time queries from it.
+ * <p>
+ * Snapshots are upserted in the transaction that writes the entries, from the wallet balance that the same
+ * transaction has just written, so they only exist for days with entries. The balance at an instant is the
+ * closing balance of the previous day plus the entries of its own day up to the instant, so a query never scans
+ * more than one day of entries. Wallets with entries but no snapshots (data written before snapshots existed)
+ * are backfilled at startup.
+ */
+@Service
+public class WalletBalanceSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletBalanceSnapshotService.class);
+
+    public static final int MAX_BALANCE_HISTORY_DAYS = 366;
+
+    private static final String BALANCE_HISTORY_TOO_LONG =
+            "Balance history can cover at most " + MAX_BALANCE_HISTORY_DAYS + " days";
+    private static final String FAILED_TO_BACKFILL_SNAPSHOTS = "Failed to backfill balance snapshots";
+
+    private final WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+
+    private final EntryRepository entryRepository;
+
+    private final WalletRepository walletRepository;
+
+    private final EntryArchiveService entryArchiveService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean backfillOnStartup;
+
+    @Autowired
+    public WalletBalanceSnapshotService(WalletBalanceSnapshotRepository walletBalanceSnapshotRepository,
+                                        EntryRepository entryRepository, WalletRepository walletRepository,
+                                        EntryArchiveService entryArchiveService, TransactionTemplate transactionTemplate,
+                                        @Value("${wallet.balance-snapshots.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.walletBalanceSnapshotRepository = walletBalanceSnapshotRepository;
+        this.entryRepository = entryRepository;
+        this.walletRepository = walletRepository;
+        this.entryArchiveService = entryArchiveService;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    /**
+     * Records the closing balance of every wallet touched by the entries for the days of the entries.
+     * Must run in the transaction that wrote the entries, after the wallet balances have been flushed.
+     *
+     * @param entries the entries that were just appended
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordClosingBalances(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<Long, NavigableMap<LocalDate, BigDecimal>> changesByWallet = new TreeMap<>();
+        for (Entry entry : entries) {
+            changesByWallet.computeIfAbsent(entry.getWallet().getId(), walletId -> new TreeMap<>())
+                    .merge(entry.getDate().toLocalDate(), balanceChange(entry), BigDecimal::add);
+        }
+
+        Map<LocalDate, List<Long>> walletIdsByLastDate = new TreeMap<>();
+        changesByWallet.forEach((walletId, changes) -> {
+            walletIdsByLastDate.computeIfAbsent(changes.lastKey(), date -> new ArrayList<>()).add(walletId);
+            // entries that straddle midnight: the earlier day closed before the changes of the later days
+            BigDecimal laterChange = BigDecimal.ZERO;
+            for (Map.Entry<LocalDate, BigDecimal> change : changes.descendingMap().entrySet()) {
+                if (!change.getKey().equals(changes.lastKey())) {
+                    walletBalanceSnapshotRepository.upsertClosingBalance(walletId, change.getKey(), laterChange);
+                }
+                laterChange = laterChange.add(change.getValue());
+            }
+        });
+        walletIdsByLastDate.forEach((date, walletIds) ->
+                walletBalanceSnapshotRepository.upsertClosingBalances(walletIds, date));
+    }
+
+    /**
+     * Calculates the balance of a wallet at an instant, including the entries made at that instant.
+     *
+     * @param wallet the wallet
+     * @param at the instant
+     * @return the balance of the wallet at the instant
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Wallet wallet, LocalDateTime at) {
+        LocalDate date = at.toLocalDate();
+        return getClosingBalance(wallet, date.minusDays(1))
+                .add(entryRepository.sumBalanceChangeBetween(wallet.getId(), date.atStartOfDay(), at))
+                .add(entryArchiveService.sumBalanceChangeBetween(wallet.getId(), date.atStartOfDay(), at));
+    }
+
+    /**
+     * Retrieves the closing balance of a wallet for every day of a date range.
+     *
+     * @param wallet the wallet
+     * @param startDate the first day of the range
+     * @param endDate the last day of the range
+     * @return one closing balance per day, in date order
+     * @throws IllegalArgumentException if the start date is after the end date or the range is longer than
+     * {@value #MAX_BALANCE_HISTORY_DAYS} days
+     */
+    @Transactional(readOnly = true)
+    public List<DailyBalanceDTO> getBalanceHistory(Wallet wallet, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException(UserService.START_DATE_AFTER_END_DATE);
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_BALANCE_HISTORY_DAYS) {
+            throw new IllegalArgumentException(BALANCE_HISTORY_TOO_LONG);
+        }
+        Map<LocalDate, BigDecimal> closingBalances = walletBalanceSnapshotRepository
+                .findByWalletIdAndDateBetweenOrderByDateAsc(wallet.getId(), startDate, endDate).stream()
+                .collect(Collectors.toMap(WalletBalanceSnapshot::getDate, WalletBalanceSnapshot::getClosingBalance));
+
+        List<DailyBalanceDTO> history = new ArrayList<>();
+        BigDecimal closingBalance = getClosingBalance(wallet, startDate.minusDays(1));
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            closingBalance = closingBalances.getOrDefault(date, closingBalance);
+            history.add(new DailyBalanceDTO(date, closingBalance));
+        }
+        return history;
+    }
+
+    /**
+     * Backfills the snapshots of the existing data when the application starts, unless
+     * {@code wallet.balance-snapshots.backfill-on-startup} is disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Builds the snapshots of every wallet that has entries but no snapshots, walking back from the current balance.
+     * Each wallet is rebuilt in its own transaction while holding its row lock, so entries written meanwhile wait.
+     *
+     * @return the number of backfilled wallets
+     * @throws CustomException if a wallet cannot be backfilled
+     */
+    public int backfill() {
+        try {
+            List<Long> walletIds = walletBalanceSnapshotRepository.findWalletIdsWithoutSnapshots();
+            for (Long walletId : walletIds) {
+                transactionTemplate.executeWithoutResult(status -> rebuildSnapshots(walletId));
+            }
+            logger.info("Backfilled balance snapshots of {} wallets", walletIds.size());
+            return walletIds.size();
+        } catch (Exception ex) {
+            logger.error("Error backfilling balance snapshots: {}", ex.getMessage(), ex);
+            throw new CustomException(FAILED_TO_BACKFILL_SNAPSHOTS);
+        }
+    }
+
+    private void rebuildSnapshots(Long walletId) {
+        Wallet wallet = walletRepository.findAllByIdInOrderByIdForUpdate(List.of(walletId)).stream()
+                .findFirst()
+                .orElse(null);
+        if (wallet == null) {
+            return;
+        }
+        walletBalanceSnapshotRepository.deleteByWalletId(walletId);
+
+        NavigableMap<LocalDate, BigDecimal> changes = new TreeMap<>();
+        entryArchiveService.forEachByWalletId(walletId, entry ->
+                changes.merge(entry.getDate().toLocalDate(), balanceChange(entry), BigDecimal::add));
+        for (DailyBalanceChange change : entryRepository.sumBalanceChangeByDateDesc(walletId)) {
+            changes.merge(change.getDate(), change.getChange(), BigDecimal::add);
+        }
+
+        List<WalletBalanceSnapshot> snapshots = new ArrayList<>();
+        BigDecimal closingBalance = wallet.getBalance();
+        for (Map.Entry<LocalDate, BigDecimal> change : changes.descendingMap().entrySet()) {
+            snapshots.add(new WalletBalanceSnapshot(null, wallet, change.getKey(), closingBalance));
+            closingBalance = closingBalance.subtract(change.getValue());
+        }
+        walletBalanceSnapshotRepository.saveAll(snapshots);
+    }
+
+    private BigDecimal getClosingBalance(Wallet wallet, LocalDate date) {
+        return walletBalanceSnapshotRepository.findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(wallet.getId(), date)
+                .map(WalletBalanceSnapshot::getClosingBalance)
+                // before its first snapshot the wallet held what it opened the day of its first entries with
+                .or(() -> walletBalanceSnapshotRepository.findFirstByWalletIdAndDateGreaterThanOrderByDateAsc(wallet.getId(), date)
+                        .map(next -> next.getClosingBalance()
+                                .subtract(entryRepository.sumBalanceChangeFromUntilBefore(wallet.getId(),
+                                        next.getDate().atStartOfDay(), next.getDate().plusDays(1).atStartOfDay()))
+                                .subtract(entryArchiveService.sumBalanceChangeFromUntilBefore(wallet.getId(),
+                                        next.getDate().atStartOfDay(), next.getDate().plusDays(1).atStartOfDay()))))
+                .orElse(wallet.getBalance());
+    }
+
+    private static BigDecimal balanceChange(Entry entry) {
+        return entry.getOperationType() == EntryOperationType.DEBIT ? entry.getAmount() : entry.getAmount().negate();
+    }
+}
@@ -0,0 +1,38 @@
+import com.wallet.wallet_api.entities.CurrencyConverter;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyConverterTest {
+
+    @Test
+    void testConvert_RoundsToCurrencyScale() {
+        BigDecimal converted = CurrencyConverter.convert(new BigDecimal("10.05"), CurrencyCode.EUR, CurrencyCode.USD);
+
+        assertEquals(new BigDecimal("11.86"), converted);
+    }
+
+    @Test
+    void testConvert_SameCurrencyReturnsAmount() {
+        BigDecimal amount = new BigDecimal("10.005");
+
+        assertSame(amount, CurrencyConverter.convert(amount, CurrencyCode.BGN, CurrencyCode.BGN));
+    }
+
+    @Test
+    void testConvert_StringAdapterMatchesEnumApi() {
+        BigDecimal amount = new BigDecimal("123.45");
+
+        for (CurrencyCode from : CurrencyCode.values()) {
+            for (CurrencyCode to : CurrencyCode.values()) {
+                assertEquals(CurrencyConverter.convert(amount, from, to),
+                        CurrencyConverter.convert(amount, from.toString(), to.toString()));
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> CurrencyConverter.convert(amount, "EUR", "JPY"));
+    }
+}
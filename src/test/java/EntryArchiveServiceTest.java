@@ -0,0 +1,233 @@
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.EntryArchiveSegment;
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.repositories.EntryArchiveSegmentRepository;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import com.wallet.wallet_api.services.EntryArchiveService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EntryArchiveServiceTest {
+
+    private static final Long WALLET_ID = 1L;
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int MAX_SEGMENT_ENTRIES = 5;
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private EntryArchiveSegmentRepository entryArchiveSegmentRepository;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EntryArchiveService entryArchiveService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        entryArchiveService = new EntryArchiveService(entryArchiveSegmentRepository, entryRepository, walletRepository,
+                entityManager, new TransactionTemplate(transactionManager), false, Duration.ofDays(365),
+                directory.toString(), MAX_SEGMENT_ENTRIES);
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        when(walletRepository.getReferenceById(WALLET_ID)).thenReturn(wallet);
+        when(entryRepository.findWalletIdsWithEntriesBefore(CUTOFF)).thenReturn(List.of(WALLET_ID));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testArchive_WritesSegmentThenDeletesArchivedEntries() {
+        Entry first = entry(1L, LocalDateTime.of(2023, 3, 1, 10, 0), "10.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        Entry last = entry(2L, LocalDateTime.of(2023, 7, 1, 10, 0), "4.50", EntryType.WITHDRAWAL, EntryOperationType.CREDIT);
+        last.setFromCurrency("EUR");
+
+        EntryArchiveSegment segment = archive(first, last);
+
+        assertEquals(first.getDate(), segment.getFirstDate());
+        assertEquals(last.getDate(), segment.getLastDate());
+        assertEquals(2, segment.getEntryCount());
+        assertEquals(CUTOFF, segment.getArchivedUntil());
+        verify(entryRepository).deleteByWalletIdAndDateBefore(WALLET_ID, CUTOFF);
+
+        when(entryArchiveSegmentRepository.findOverlapping(WALLET_ID, first.getDate(), last.getDate()))
+                .thenReturn(List.of(segment));
+        List<Entry> archived = entryArchiveService.findByWalletIdAndDateBetween(WALLET_ID, first.getDate(), last.getDate());
+
+        assertSameEntries(List.of(first, last), archived);
+    }
+
+    @Test
+    void testArchive_SplitsEntriesIntoSegmentsOfMaxEntries() {
+        LocalDateTime date = LocalDateTime.of(2023, 3, 1, 10, 0);
+        List<Entry> entries = LongStream.rangeClosed(1, 11)
+                .mapToObj(id -> entry(id, date.plusDays(id / 2), "1.00", EntryType.DEPOSIT, EntryOperationType.DEBIT))
+                .toList();
+        when(entryRepository.streamByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(entries.stream());
+        when(entryRepository.deleteByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(entries.size());
+
+        assertEquals(11, entryArchiveService.archive(CUTOFF));
+
+        ArgumentCaptor<EntryArchiveSegment> saved = ArgumentCaptor.forClass(EntryArchiveSegment.class);
+        verify(entryArchiveSegmentRepository, times(3)).save(saved.capture());
+        List<EntryArchiveSegment> segments = saved.getAllValues();
+        assertEquals(List.of(5L, 5L, 1L), segments.stream().map(EntryArchiveSegment::getEntryCount).toList());
+        assertEquals(entries.get(5).getDate(), segments.get(1).getFirstDate());
+        assertEquals(entries.get(9).getDate(), segments.get(1).getLastDate());
+        when(entryArchiveSegmentRepository.findOverlapping(WALLET_ID, date, CUTOFF)).thenReturn(segments);
+
+        assertSameEntries(entries, entryArchiveService.findByWalletIdAndDateBetween(WALLET_ID, date, CUTOFF));
+    }
+
+    @Test
+    void testArchive_EntriesAddedMeanwhileRollBackAndDiscardSegment() throws IOException {
+        Entry entry = entry(1L, LocalDateTime.of(2023, 3, 1, 10, 0), "10.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        when(entryRepository.streamByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(Stream.of(entry));
+        when(entryRepository.deleteByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(2);
+
+        assertThrows(CustomException.class, () -> entryArchiveService.archive(CUTOFF));
+
+        verify(transactionManager).rollback(any());
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    void testSums_RespectInclusiveAndExclusiveEnds() {
+        LocalDateTime march = LocalDateTime.of(2023, 3, 1, 0, 0);
+        LocalDateTime april = LocalDateTime.of(2023, 4, 1, 0, 0);
+        EntryArchiveSegment segment = archive(
+                entry(1L, march.minusSeconds(1), "1.00", EntryType.DEPOSIT, EntryOperationType.DEBIT),
+                entry(2L, march, "10.00", EntryType.DEPOSIT, EntryOperationType.DEBIT),
+                entry(3L, march.plusDays(3), "5.00", EntryType.DEPOSIT, EntryOperationType.DEBIT),
+                entry(4L, march.plusDays(4), "3.00", EntryType.WITHDRAWAL, EntryOperationType.CREDIT),
+                entry(5L, april, "100.00", EntryType.DEPOSIT, EntryOperationType.DEBIT));
+        when(entryArchiveSegmentRepository.findOverlapping(any(), any(), any())).thenReturn(List.of(segment));
+
+        List<EntryTotal> untilBefore = entryArchiveService.sumAmountsByTypeAndOperationTypeFromUntilBefore(WALLET_ID, march, april);
+        List<EntryTotal> between = entryArchiveService.sumAmountsByTypeAndOperationType(WALLET_ID, march, april);
+
+        assertEquals(new BigDecimal("15.00"), total(untilBefore, EntryType.DEPOSIT));
+        assertEquals(new BigDecimal("3.00"), total(untilBefore, EntryType.WITHDRAWAL));
+        assertEquals(new BigDecimal("115.00"), total(between, EntryType.DEPOSIT));
+        assertEquals(new BigDecimal("12.00"), entryArchiveService.sumBalanceChangeFromUntilBefore(WALLET_ID, march, april));
+        assertEquals(new BigDecimal("112.00"), entryArchiveService.sumBalanceChangeBetween(WALLET_ID, march, april));
+    }
+
+    @Test
+    void testFindPageBefore_NewestFirstAcrossSegments() {
+        Entry oldest = entry(1L, LocalDateTime.of(2021, 5, 1, 10, 0), "1.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        Entry middle = entry(2L, LocalDateTime.of(2022, 5, 1, 10, 0), "2.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        Entry newest = entry(3L, LocalDateTime.of(2022, 5, 1, 10, 0), "3.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        EntryArchiveSegment older = archive(oldest);
+        EntryArchiveSegment newer = archive(middle, newest);
+        when(entryArchiveSegmentRepository.findByWalletIdAndFirstDateLessThanEqualOrderByFirstDateDescIdDesc(WALLET_ID, newest.getDate()))
+                .thenReturn(List.of(newer, older));
+
+        List<Entry> page = entryArchiveService.findPageBefore(WALLET_ID, null, null, newest.getDate(), newest.getId(), 5);
+
+        assertSameEntries(List.of(middle, oldest), page);
+    }
+
+    @Test
+    void testFindPageBefore_KeepsNewestMatchesOfSegmentBeforePosition() {
+        LocalDateTime date = LocalDateTime.of(2023, 3, 1, 10, 0);
+        Entry firstDeposit = entry(1L, date, "1.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        Entry withdrawal = entry(2L, date.plusDays(1), "2.00", EntryType.WITHDRAWAL, EntryOperationType.CREDIT);
+        Entry secondDeposit = entry(3L, date.plusDays(2), "3.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        Entry position = entry(4L, date.plusDays(3), "4.00", EntryType.DEPOSIT, EntryOperationType.DEBIT);
+        EntryArchiveSegment older = archive(firstDeposit, withdrawal, secondDeposit);
+        EntryArchiveSegment newer = archive(position);
+        when(entryArchiveSegmentRepository.findByWalletIdOrderByFirstDateDescIdDesc(WALLET_ID))
+                .thenReturn(List.of(newer, older));
+        when(entryArchiveSegmentRepository.findByWalletIdAndFirstDateLessThanEqualOrderByFirstDateDescIdDesc(WALLET_ID, position.getDate()))
+                .thenReturn(List.of(newer, older));
+
+        List<Entry> newestDeposit = entryArchiveService.findPageBefore(WALLET_ID, EntryType.DEPOSIT, null, null, null, 1);
+        List<Entry> depositsBefore = entryArchiveService.findPageBefore(WALLET_ID, EntryType.DEPOSIT, null,
+                position.getDate(), position.getId(), 5);
+
+        assertSameEntries(List.of(position), newestDeposit);
+        assertSameEntries(List.of(secondDeposit, firstDeposit), depositsBefore);
+    }
+
+    private EntryArchiveSegment archive(Entry... entries) {
+        reset(entryArchiveSegmentRepository);
+        when(entryRepository.streamByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(Stream.of(entries));
+        when(entryRepository.deleteByWalletIdAndDateBefore(WALLET_ID, CUTOFF)).thenReturn(entries.length);
+
+        assertEquals(entries.length, entryArchiveService.archive(CUTOFF));
+
+        ArgumentCaptor<EntryArchiveSegment> segment = ArgumentCaptor.forClass(EntryArchiveSegment.class);
+        verify(entryArchiveSegmentRepository).save(segment.capture());
+        assertTrue(Files.exists(directory.resolve(segment.getValue().getFileName())));
+        return segment.getValue();
+    }
+
+    // entries are equal when their ids are, so compare every column read back from the segment
+    private static void assertSameEntries(List<Entry> expected, List<Entry> actual) {
+        assertEquals(expected.stream().map(Entry::toString).toList(), actual.stream().map(Entry::toString).toList());
+    }
+
+    private static BigDecimal total(List<EntryTotal> totals, EntryType type) {
+        return totals.stream()
+                .filter(total -> total.getType() == type)
+                .map(EntryTotal::getTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Entry entry(Long id, LocalDateTime date, String amount, EntryType type,
+                               EntryOperationType operationType) {
+        Entry entry = new Entry();
+        entry.setId(id);
+        entry.setDate(date);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setType(type);
+        entry.setOperationType(operationType);
+        return entry;
+    }
+}
@@ -0,0 +1,168 @@
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.repositories.EntryMonthlyRollupRepository;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import com.wallet.wallet_api.services.EntryArchiveService;
+import com.wallet.wallet_api.services.EntryMonthlyRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EntryMonthlyRollupServiceTest {
+
+    private static final Long WALLET_ID = 1L;
+
+    @Mock
+    private EntryMonthlyRollupRepository entryMonthlyRollupRepository;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EntryArchiveService entryArchiveService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private EntryMonthlyRollupService entryMonthlyRollupService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        entryMonthlyRollupService = new EntryMonthlyRollupService(entryMonthlyRollupRepository, entryRepository,
+                walletRepository, entryArchiveService, new TransactionTemplate(transactionManager), jdbcTemplate, false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testSumAmounts_WholeMonthsComeFromRollups() {
+        LocalDateTime startDate = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        EntryTotal total = mock(EntryTotal.class);
+        when(entryMonthlyRollupRepository.sumTotalsByTypeAndOperationType(WALLET_ID,
+                LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 1))).thenReturn(List.of(total));
+
+        List<EntryTotal> totals = entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate);
+
+        assertEquals(List.of(total), totals.subList(0, 1));
+        verify(entryRepository, never()).sumAmountsByTypeAndOperationTypeFromUntilBefore(any(), any(), any());
+    }
+
+    @Test
+    void testSumAmounts_MonthEndingAtLastSecondComesFromEntries() {
+        LocalDateTime startDate = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2023, 12, 31, 23, 59, 59);
+        EntryTotal monthlyTotal = mock(EntryTotal.class);
+        EntryTotal trailingTotal = mock(EntryTotal.class);
+        when(entryMonthlyRollupRepository.sumTotalsByTypeAndOperationType(WALLET_ID,
+                LocalDate.of(2022, 1, 1), LocalDate.of(2023, 11, 1))).thenReturn(List.of(monthlyTotal));
+        when(entryRepository.sumAmountsByTypeAndOperationType(WALLET_ID,
+                LocalDateTime.of(2023, 12, 1, 0, 0), endDate)).thenReturn(List.of(trailingTotal));
+
+        List<EntryTotal> totals = entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate);
+
+        // entries after 23:59:59 but before midnight are outside the range, so December cannot come from its rollup
+        assertEquals(List.of(monthlyTotal, trailingTotal), totals);
+    }
+
+    @Test
+    void testSumAmounts_PartialMonthsComeFromEntries() {
+        LocalDateTime startDate = LocalDateTime.of(2022, 3, 15, 0, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2023, 2, 10, 23, 59, 59);
+        EntryTotal leadingTotal = mock(EntryTotal.class);
+        EntryTotal monthlyTotal = mock(EntryTotal.class);
+        EntryTotal trailingTotal = mock(EntryTotal.class);
+        when(entryRepository.sumAmountsByTypeAndOperationTypeFromUntilBefore(WALLET_ID, startDate,
+                LocalDateTime.of(2022, 4, 1, 0, 0))).thenReturn(List.of(leadingTotal));
+        when(entryMonthlyRollupRepository.sumTotalsByTypeAndOperationType(WALLET_ID,
+                LocalDate.of(2022, 4, 1), LocalDate.of(2023, 1, 1))).thenReturn(List.of(monthlyTotal));
+        when(entryRepository.sumAmountsByTypeAndOperationType(WALLET_ID,
+                LocalDateTime.of(2023, 2, 1, 0, 0), endDate)).thenReturn(List.of(trailingTotal));
+
+        List<EntryTotal> totals = entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate);
+
+        assertEquals(List.of(monthlyTotal, leadingTotal, trailingTotal), totals);
+    }
+
+    @Test
+    void testSumAmounts_RangeWithinMonthComesFromEntries() {
+        LocalDateTime startDate = LocalDateTime.of(2022, 3, 1, 0, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2022, 3, 30, 23, 59, 59);
+        when(entryRepository.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate)).thenReturn(List.of());
+
+        entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate);
+
+        verify(entryRepository).sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate);
+        verifyNoInteractions(entryMonthlyRollupRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordEntries_AddsOneRowPerWalletMonthAndType() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+
+        entryMonthlyRollupService.recordEntries(List.of(
+                entry(wallet, LocalDateTime.of(2024, 6, 10, 9, 0), "10.00", EntryType.DEPOSIT, EntryOperationType.DEBIT),
+                entry(wallet, LocalDateTime.of(2024, 6, 11, 9, 0), "5.50", EntryType.DEPOSIT, EntryOperationType.DEBIT),
+                entry(wallet, LocalDateTime.of(2024, 6, 11, 9, 0), "3.00", EntryType.WITHDRAWAL, EntryOperationType.CREDIT)));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertArrayEquals(new Object[]{WALLET_ID, LocalDate.of(2024, 6, 1), "DEPOSIT", "DEBIT", new BigDecimal("15.50"), 2L},
+                rows.getValue().get(0));
+        assertArrayEquals(new Object[]{WALLET_ID, LocalDate.of(2024, 6, 1), "WITHDRAWAL", "CREDIT", new BigDecimal("3.00"), 1L},
+                rows.getValue().get(1));
+    }
+
+    @Test
+    void testRecordEntries_NothingToRecord() {
+        entryMonthlyRollupService.recordEntries(List.of());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    private static Entry entry(Wallet wallet, LocalDateTime date, String amount, EntryType type,
+                               EntryOperationType operationType) {
+        Entry entry = new Entry();
+        entry.setWallet(wallet);
+        entry.setDate(date);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setType(type);
+        entry.setOperationType(operationType);
+        return entry;
+    }
+}
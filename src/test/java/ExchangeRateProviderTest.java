@@ -0,0 +1,132 @@
+import com.wallet.wallet_api.entities.ExchangeRateSnapshot;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import com.wallet.wallet_api.exceptions.CustomException;
+import com.wallet.wallet_api.services.ExchangeRateProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ExchangeRateProviderTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+
+    @TempDir
+    private Path directory;
+
+    private Path ratesFile;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ratesFile = directory.resolve("exchange-rates.csv");
+        writeRates("EUR,USD,1.18");
+        jdbcTemplate = mock(JdbcTemplate.class);
+        exchangeRateProvider = createProvider();
+    }
+
+    @Test
+    void testRefresh_UnchangedRatesKeepSnapshot() {
+        ExchangeRateSnapshot snapshot = exchangeRateProvider.getRates();
+
+        assertFalse(exchangeRateProvider.refresh());
+
+        assertSame(snapshot, exchangeRateProvider.getRates());
+    }
+
+    @Test
+    void testRefresh_ChangedRatesPublishNewerSnapshot() throws IOException {
+        ExchangeRateSnapshot inFlight = exchangeRateProvider.getRates();
+        writeRates("EUR,USD,1.20");
+
+        assertTrue(exchangeRateProvider.refresh());
+
+        ExchangeRateSnapshot current = exchangeRateProvider.getRates();
+        assertNotEquals(inFlight.getVersion(), current.getVersion());
+        assertEquals(new BigDecimal("120.00"), current.convert(AMOUNT, CurrencyCode.EUR, CurrencyCode.USD));
+        assertEquals(new BigDecimal("118.00"), inFlight.convert(AMOUNT, CurrencyCode.EUR, CurrencyCode.USD));
+    }
+
+    @Test
+    void testRefresh_InvalidRatesKeepCurrentSnapshot() throws IOException {
+        ExchangeRateSnapshot snapshot = exchangeRateProvider.getRates();
+        writeRates("EUR,USD,-1");
+
+        assertThrows(CustomException.class, () -> exchangeRateProvider.refresh());
+        exchangeRateProvider.scheduledRefresh();
+
+        assertSame(snapshot, exchangeRateProvider.getRates());
+    }
+
+    @Test
+    void testRefresh_VersionDependsOnRatesOnly() throws IOException {
+        writeRates("EUR,USD,1.20", "USD,EUR,0.85");
+        long version = createProvider().getRates().getVersion();
+        writeRates(" USD , EUR , 0.8500", "EUR,USD,1.2");
+
+        assertEquals(version, createProvider().getRates().getVersion());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRefresh_RecordsRatesBeforePublishing() throws IOException {
+        writeRates("EUR,USD,1.20");
+
+        assertTrue(exchangeRateProvider.refresh());
+
+        long version = exchangeRateProvider.getRates().getVersion();
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(new Object[]{version, "EUR", "USD", new BigDecimal("1.20")},
+                Arrays.copyOf(rows.getValue().get(0), 4));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRefresh_UnrecordedRatesAreNotPublished() throws IOException {
+        ExchangeRateSnapshot snapshot = exchangeRateProvider.getRates();
+        writeRates("EUR,USD,1.20");
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class)))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+
+        assertThrows(CustomException.class, () -> exchangeRateProvider.refresh());
+
+        assertSame(snapshot, exchangeRateProvider.getRates());
+    }
+
+    @Test
+    void testConvert_MissingRateThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> exchangeRateProvider.getRates().convert(AMOUNT, CurrencyCode.USD, CurrencyCode.EUR));
+    }
+
+    private ExchangeRateProvider createProvider() {
+        return new ExchangeRateProvider(new DefaultResourceLoader(), ratesFile.toUri().toString(), jdbcTemplate,
+                new SimpleMeterRegistry());
+    }
+
+    private void writeRates(String... rows) throws IOException {
+        Files.writeString(ratesFile, String.join(",", ExchangeRateProvider.RATES_HEADER) + "\n"
+                + String.join("\n", rows) + "\n");
+    }
+}
@@ -0,0 +1,138 @@
+import com.wallet.wallet_api.config.IdNodeGuard;
+import com.wallet.wallet_api.entities.IdNodeLease;
+import com.wallet.wallet_api.repositories.IdNodeLeaseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.mockito.Mockito.*;
+
+class IdNodeGuardTest {
+
+    private static final int NODE = 7;
+
+    @Mock
+    private IdNodeLeaseRepository idNodeLeaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    private AutoCloseable closeable;
+
+    private IdNodeGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        guard = new IdNodeGuard(idNodeLeaseRepository, new TransactionTemplate(transactionManager), jdbcTemplate,
+                entityManagerFactory, NODE, true, Duration.ofMillis(200), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testAcquireNode_FreeNode() throws InterruptedException {
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE)).thenReturn(Optional.empty());
+
+        guard.acquireNode();
+
+        verify(idNodeLeaseRepository).save(argThat(lease -> lease.getNode() == NODE));
+    }
+
+    @Test
+    void testAcquireNode_ExpiredLeaseOfAnotherInstance() throws InterruptedException {
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE))
+                .thenReturn(Optional.of(new IdNodeLease(NODE, "crashed", LocalDateTime.now().minusMinutes(1))));
+
+        guard.acquireNode();
+
+        verify(idNodeLeaseRepository).save(argThat(lease -> !lease.getOwner().equals("crashed")));
+    }
+
+    @Test
+    void testAcquireNode_NodeRenewedByAnotherInstance() {
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE))
+                .thenAnswer(invocation -> Optional.of(new IdNodeLease(NODE, "other", LocalDateTime.now())));
+
+        Throwable thrown = catchThrowable(() -> guard.acquireNode());
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("wallet.id.node 7");
+        verify(idNodeLeaseRepository, never()).save(any());
+    }
+
+    @Test
+    void testAcquireNode_LeaseInsertedConcurrently() throws InterruptedException {
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE)).thenReturn(Optional.empty());
+        when(idNodeLeaseRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        guard.acquireNode();
+
+        verify(idNodeLeaseRepository, times(2)).save(any());
+    }
+
+    @Test
+    void testRenewNode_ExpiredLeaseIsTakenBack() {
+        when(idNodeLeaseRepository.renew(eq(NODE), any(), any())).thenReturn(0);
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE)).thenReturn(Optional.empty());
+
+        guard.renewNode();
+
+        verify(idNodeLeaseRepository).save(argThat(lease -> lease.getNode() == NODE));
+    }
+
+    @Test
+    void testRenewNode_LeaseTakenByAnotherInstance() {
+        when(idNodeLeaseRepository.renew(eq(NODE), any(), any())).thenReturn(0);
+        when(idNodeLeaseRepository.findByNodeForUpdate(NODE))
+                .thenReturn(Optional.of(new IdNodeLease(NODE, "other", LocalDateTime.now())));
+
+        guard.renewNode();
+
+        verify(idNodeLeaseRepository, never()).save(any());
+    }
+
+    @Test
+    void testRenewAndReleaseNode_LeaseDisabled() {
+        IdNodeGuard unleased = new IdNodeGuard(idNodeLeaseRepository, new TransactionTemplate(transactionManager),
+                jdbcTemplate, entityManagerFactory, NODE, false, Duration.ofMillis(200), Duration.ofMillis(50));
+
+        unleased.renewNode();
+        unleased.releaseNode();
+
+        verifyNoInteractions(idNodeLeaseRepository);
+    }
+
+    @Test
+    void testConstructor_TtlNotLongerThanRenewInterval() {
+        Throwable thrown = catchThrowable(() -> new IdNodeGuard(idNodeLeaseRepository,
+                new TransactionTemplate(transactionManager), jdbcTemplate, entityManagerFactory, NODE, true,
+                Duration.ofSeconds(5), Duration.ofSeconds(10)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,219 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.wallet_api.entities.IdempotencyRecord;
+import com.wallet.wallet_api.entities.dto.TransferDTO;
+import com.wallet.wallet_api.entities.enums.IdempotencyStatus;
+import com.wallet.wallet_api.repositories.IdempotencyRecordRepository;
+import com.wallet.wallet_api.services.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "payroll-2024-10-0001";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(idempotencyRecordRepository.complete(anyString(), anyInt(), any())).thenReturn(1);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                Duration.ofHours(1), 100, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testExecute_ReplaysFirstResponse() {
+        AtomicInteger executions = new AtomicInteger();
+
+        ResponseEntity<String> first = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> ResponseEntity.ok("Transfer successful " + executions.incrementAndGet()));
+        ResponseEntity<String> second = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> ResponseEntity.ok("Transfer successful " + executions.incrementAndGet()));
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER));
+        verify(idempotencyRecordRepository, times(1)).claim(eq(KEY), anyString(), any());
+        verify(idempotencyRecordRepository, times(1)).complete(KEY, 200, first.getBody());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicateWaitsForOriginal() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> original = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"), () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok("Transfer successful");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<String>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"), () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok("Transfer successful");
+                }));
+        release.countDown();
+
+        assertEquals(HttpStatus.OK, original.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, duplicate.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest() {
+        idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"), () -> ResponseEntity.ok("Transfer successful"));
+
+        ResponseEntity<String> response = idempotencyService.execute(KEY, "transfer", createTransferDTO("99.00"),
+                () -> ResponseEntity.ok("Transfer successful"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+
+    @Test
+    void testExecute_FailedResponseIsNotStored() {
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"), () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>("An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+        ResponseEntity<String> retry = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"), () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok("Transfer successful");
+        });
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        verify(idempotencyRecordRepository, times(1)).release(KEY);
+    }
+
+    @Test
+    void testExecute_ExceptionReleasesKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(KEY, "transfer",
+                createTransferDTO("10.00"), () -> {
+                    throw new IllegalStateException("connection lost");
+                }));
+
+        verify(idempotencyRecordRepository).release(KEY);
+        verify(idempotencyRecordRepository, never()).complete(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testExecute_KeyClaimedByAnotherInstance() {
+        when(idempotencyRecordRepository.claim(eq(KEY), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        ResponseEntity<String> response = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> fail("a key claimed elsewhere must not be executed"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(idempotencyRecordRepository, never()).release(anyString());
+    }
+
+    @Test
+    void testExecute_StoredInProgressRecordIsNotExecuted() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(new IdempotencyRecord(KEY, "hash",
+                IdempotencyStatus.IN_PROGRESS, null, null, LocalDateTime.now().minusMinutes(1))));
+
+        ResponseEntity<String> response = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> fail("a key left in progress must not be executed"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(idempotencyRecordRepository, never()).claim(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testExecute_ExpiredRecordIsReclaimed() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(new IdempotencyRecord(KEY, "hash",
+                IdempotencyStatus.IN_PROGRESS, null, null, LocalDateTime.now().minusHours(2))));
+
+        ResponseEntity<String> response = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> ResponseEntity.ok("Transfer successful"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(idempotencyRecordRepository).deleteExpired(eq(KEY), any());
+        verify(idempotencyRecordRepository).claim(eq(KEY), anyString(), any());
+    }
+
+    @Test
+    void testExecute_FailedCompletionIsNotSwallowed() {
+        when(idempotencyRecordRepository.complete(anyString(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> idempotencyService.execute(KEY, "transfer",
+                createTransferDTO("10.00"), () -> ResponseEntity.ok("Transfer successful")));
+
+        // the committed operation keeps the key claimed
+        verify(idempotencyRecordRepository, never()).release(anyString());
+    }
+
+    @Test
+    void testExecute_ReplaysStoredRecordAfterRestart() {
+        ResponseEntity<String> first = idempotencyService.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> ResponseEntity.ok("Transfer successful"));
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyRecordRepository).claim(eq(KEY), requestHash.capture(), any());
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(new IdempotencyRecord(KEY,
+                requestHash.getValue(), IdempotencyStatus.COMPLETED, 200, first.getBody(), LocalDateTime.now())));
+        IdempotencyService restarted = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                Duration.ofHours(1), 100, Duration.ofSeconds(5));
+
+        ResponseEntity<String> replayed = restarted.execute(KEY, "transfer", createTransferDTO("10.00"),
+                () -> fail("the stored response must be replayed"));
+
+        assertEquals(first.getBody(), replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    private static TransferDTO createTransferDTO(String amount) {
+        TransferDTO transferDTO = new TransferDTO();
+        transferDTO.setUserId(1L);
+        transferDTO.setWalletId(2L);
+        transferDTO.setReceiverId(3L);
+        transferDTO.setReceiverWalletId(4L);
+        transferDTO.setAmount(new BigDecimal(amount));
+        return transferDTO;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import com.wallet.wallet_api.entities.Money;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testOf_RoundsToMinorUnitsLikeTheAmountColumns() {
+        assertEquals(1001, Money.of(new BigDecimal("10.005"), CurrencyCode.EUR).getMinorUnits());
+        assertEquals(-1001, Money.of(new BigDecimal("-10.005"), CurrencyCode.EUR).getMinorUnits());
+        assertEquals(new BigDecimal("12.30"), Money.of(new BigDecimal("12.3"), CurrencyCode.EUR).toBigDecimal());
+    }
+
+    @Test
+    void testArithmetic_ChecksCurrencyAndOverflow() {
+        Money ten = Money.of(BigDecimal.TEN, CurrencyCode.USD);
+        Money three = Money.of(new BigDecimal("3.25"), CurrencyCode.USD);
+
+        assertEquals(Money.of(new BigDecimal("13.25"), CurrencyCode.USD), ten.plus(three));
+        assertEquals(Money.of(new BigDecimal("-6.75"), CurrencyCode.USD), three.minus(ten));
+        assertTrue(three.isLessThan(ten));
+        assertThrows(IllegalArgumentException.class, () -> ten.plus(Money.of(BigDecimal.ONE, CurrencyCode.EUR)));
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinorUnits(Long.MAX_VALUE, CurrencyCode.USD).plus(Money.ofMinorUnits(1, CurrencyCode.USD)));
+        assertThrows(ArithmeticException.class,
+                () -> Money.of(new BigDecimal("1E+18"), CurrencyCode.USD));
+    }
+
+}
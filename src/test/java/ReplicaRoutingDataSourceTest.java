@@ -0,0 +1,190 @@
+import com.wallet.wallet_api.config.ReplicaLagMonitor;
+import com.wallet.wallet_api.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration READ_YOUR_WRITES_WINDOW = Duration.ofHours(1);
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        closeable = MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TransactionSynchronizationManager.clear();
+        closeable.close();
+    }
+
+    @Test
+    void testRoute_NoTransactionGoesToPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("primary", "no-transaction"));
+    }
+
+    @Test
+    void testRoute_ReadWriteTransactionGoesToPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(false);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("primary", "read-write"));
+        verifyNoInteractions(replicaLagMonitor);
+    }
+
+    @Test
+    void testRoute_ReadOnlyTransactionGoesToReplica() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("replica", "read-only"));
+    }
+
+    @Test
+    void testRoute_ReadAfterCommittedWriteGoesToPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(false);
+        dataSource.getConnection();
+        commitTransaction();
+        beginTransaction(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("primary", "recent-write"));
+        assertEquals(0.0, routed("replica", "read-only"));
+    }
+
+    @Test
+    void testRoute_ReadAfterRolledBackWriteGoesToReplica() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(false);
+        dataSource.getConnection();
+        TransactionSynchronizationManager.clear();
+        beginTransaction(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(0.0, routed("primary", "recent-write"));
+    }
+
+    @Test
+    void testRoute_ReadAfterWindowGoesToReplica() throws SQLException {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(replicaLagMonitor, Duration.ZERO, true,
+                meterRegistry);
+        initialize(dataSource);
+        beginTransaction(false);
+        dataSource.getConnection();
+        commitTransaction();
+        beginTransaction(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("replica", "read-only"));
+    }
+
+    @Test
+    void testRoute_LaggingReplicaFallsBackToPrimary() throws SQLException {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("primary", "replica-unavailable"));
+    }
+
+    @Test
+    void testRoute_LaggingReplicaIsUsedWithoutFallback() throws SQLException {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+        ReplicaRoutingDataSource dataSource = createDataSource(false);
+        beginTransaction(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1.0, routed("replica", "read-only"));
+        assertEquals(0.0, routed("primary", "replica-unavailable"));
+        verifyNoInteractions(replicaLagMonitor);
+    }
+
+    @Test
+    void testRoute_CountsEveryDecision() throws SQLException {
+        ReplicaRoutingDataSource dataSource = createDataSource(true);
+        beginTransaction(true);
+        dataSource.getConnection();
+        dataSource.getConnection();
+        TransactionSynchronizationManager.clear();
+        dataSource.getConnection();
+
+        assertEquals(2.0, routed("replica", "read-only"));
+        assertEquals(1.0, routed("primary", "no-transaction"));
+        assertEquals(5, meterRegistry.find(ReplicaRoutingDataSource.ROUTING_METRIC).counters().size());
+    }
+
+    private ReplicaRoutingDataSource createDataSource(boolean fallbackToPrimary) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(replicaLagMonitor, READ_YOUR_WRITES_WINDOW,
+                fallbackToPrimary, meterRegistry);
+        initialize(dataSource);
+        return dataSource;
+    }
+
+    private void initialize(ReplicaRoutingDataSource dataSource) {
+        dataSource.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        dataSource.afterPropertiesSet();
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.clear();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void commitTransaction() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.counter(ReplicaRoutingDataSource.ROUTING_METRIC, "target", target, "reason", reason).count();
+    }
+}
@@ -0,0 +1,81 @@
+import com.wallet.wallet_api.entities.id.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long MAX_SAFE_JSON_INTEGER = (1L << 53) - 1;
+
+    @Test
+    void testNextId_UniqueAndIncreasing() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+
+        for (int i = 0; i < 70_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id <= MAX_SAFE_JSON_INTEGER);
+            ids.add(id);
+            previous = id;
+        }
+
+        assertThat(ids.size()).isEqualTo(70_000);
+    }
+
+    @Test
+    void testNextId_NodesDoNotCollide() {
+        long first = new TimeOrderedIdGenerator(1).nextId();
+        long second = new TimeOrderedIdGenerator(2).nextId();
+
+        assertTrue(first != second);
+    }
+
+    @Test
+    void testSeed_ContinuesAfterTheLastIdOfTheNode() {
+        TimeOrderedIdGenerator before = new TimeOrderedIdGenerator(3);
+        long lastId = 0;
+        for (int i = 0; i < 1000; i++) {
+            lastId = before.nextId();
+        }
+        TimeOrderedIdGenerator restarted = new TimeOrderedIdGenerator(3);
+
+        restarted.seed(lastId);
+
+        assertTrue(restarted.nextId() > lastId);
+    }
+
+    @Test
+    void testSeed_IdOfAnotherNode() {
+        long otherNodeId = new TimeOrderedIdGenerator(2).nextId();
+
+        Throwable thrown = catchThrowable(() -> new TimeOrderedIdGenerator(3).seed(otherNodeId));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSeed_ClockBehindTheLastId() {
+        long future = TimeOrderedIdGenerator.firstIdOf(TimeOrderedIdGenerator.currentSecond() + 60)
+                | (3L << TimeOrderedIdGenerator.SEQUENCE_BITS);
+
+        Throwable thrown = catchThrowable(() -> new TimeOrderedIdGenerator(3).seed(future));
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("behind");
+    }
+
+    @Test
+    void testConstructor_InvalidNode() {
+        Throwable thrown = catchThrowable(() -> new TimeOrderedIdGenerator(32));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("wallet.id.node");
+    }
+}
@@ -0,0 +1,70 @@
+import com.wallet.wallet_api.entities.enums.ConcurrencyMode;
+import com.wallet.wallet_api.services.TransferRetryExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransferRetryExecutorTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransferRetryExecutor transferRetryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transferRetryExecutor = new TransferRetryExecutor(meterRegistry, ConcurrencyMode.OPTIMISTIC, MAX_ATTEMPTS, 1, 2);
+    }
+
+    @Test
+    void testExecute_RetriesUntilTransferSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        transferRetryExecutor.execute(() -> {
+            if (attempts.incrementAndGet() < MAX_ATTEMPTS) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+        });
+
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("wallet.transfer.retries", "mode", "OPTIMISTIC").count());
+        assertEquals(0.0, meterRegistry.counter("wallet.transfer.retries.exhausted", "mode", "OPTIMISTIC").count());
+    }
+
+    @Test
+    void testExecute_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Throwable thrown = catchThrowable(() -> transferRetryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+        }));
+
+        assertThat(thrown).isInstanceOf(CannotAcquireLockException.class);
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("wallet.transfer.retries.exhausted", "mode", "OPTIMISTIC").count());
+    }
+
+    @Test
+    void testExecute_DoesNotRetryBusinessErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Throwable thrown = catchThrowable(() -> transferRetryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        assertEquals(1, attempts.get());
+    }
+}
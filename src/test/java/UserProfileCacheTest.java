@@ -0,0 +1,128 @@
+import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
+import com.wallet.wallet_api.services.UserProfileCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProfileCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    private UserProfileCache userProfileCache;
+
+    @BeforeEach
+    void setUp() {
+        userProfileCache = new UserProfileCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testGet_LoadsOnCallingThreadOnce() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger loads = new AtomicInteger();
+
+        ResponseUserDTO first = userProfileCache.get(USER_ID, userId -> {
+            assertSame(caller, Thread.currentThread());
+            loads.incrementAndGet();
+            return profile(userId);
+        });
+        ResponseUserDTO second = userProfileCache.get(USER_ID, userId -> fail("the cached profile must be served"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_ConcurrentMissWaitsForLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResponseUserDTO loaded = profile(USER_ID);
+
+        CompletableFuture<ResponseUserDTO> original = CompletableFuture.supplyAsync(() ->
+                userProfileCache.get(USER_ID, userId -> {
+                    loading.countDown();
+                    await(release);
+                    return loaded;
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseUserDTO> duplicate = CompletableFuture.supplyAsync(() ->
+                userProfileCache.get(USER_ID, userId -> fail("a concurrent miss must wait for the running load")));
+        release.countDown();
+
+        assertSame(loaded, original.get(5, TimeUnit.SECONDS));
+        assertSame(loaded, duplicate.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGet_LoadRunningDuringEvictionIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        userProfileCache.get(USER_ID, userId -> {
+            loads.incrementAndGet();
+            userProfileCache.evictAfterCommit(userId);
+            return profile(userId);
+        });
+        userProfileCache.get(USER_ID, userId -> {
+            loads.incrementAndGet();
+            return profile(userId);
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_FailedLoadIsRethrownAndNotCached() {
+        IllegalStateException failure = new IllegalStateException("connection lost");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> userProfileCache.get(USER_ID, userId -> {
+                    throw failure;
+                }));
+        ResponseUserDTO reloaded = userProfileCache.get(USER_ID, UserProfileCacheTest::profile);
+
+        assertSame(failure, thrown);
+        assertEquals(USER_ID, reloaded.getId());
+    }
+
+    @Test
+    void testGet_ConcurrentMissLoadsAgainAfterFailedLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResponseUserDTO reloaded = profile(USER_ID);
+
+        CompletableFuture<ResponseUserDTO> original = CompletableFuture.supplyAsync(() ->
+                userProfileCache.get(USER_ID, userId -> {
+                    loading.countDown();
+                    await(release);
+                    throw new IllegalStateException("connection lost");
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseUserDTO> duplicate = CompletableFuture.supplyAsync(() ->
+                userProfileCache.get(USER_ID, userId -> reloaded));
+        release.countDown();
+
+        assertThrows(Exception.class, () -> original.get(5, TimeUnit.SECONDS));
+        assertSame(reloaded, duplicate.get(5, TimeUnit.SECONDS));
+    }
+
+    private static ResponseUserDTO profile(Long userId) {
+        ResponseUserDTO profile = new ResponseUserDTO();
+        profile.setId(userId);
+        return profile;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,24 +1,52 @@
 import com.wallet.wallet_api.entities.*;
+import com.wallet.wallet_api.entities.enums.ConcurrencyMode;
 import com.wallet.wallet_api.entities.enums.CurrencyCode;
 import com.wallet.wallet_api.entities.enums.EntryOperationType;
 import com.wallet.wallet_api.entities.enums.EntryType;
+import com.wallet.wallet_api.entities.enums.TransferStatus;
 import com.wallet.wallet_api.exceptions.CustomException;
 import com.wallet.wallet_api.exceptions.InsufficientFundsException;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.TransferCommandRepository;
+import com.wallet.wallet_api.repositories.TransferWorkerLockRepository;
 import com.wallet.wallet_api.repositories.UserRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.repositories.projections.EntryTotal;
+import com.wallet.wallet_api.repositories.projections.WalletView;
 import com.wallet.wallet_api.entities.EntriesSummary;
+import com.wallet.wallet_api.services.EntryArchiveService;
+import com.wallet.wallet_api.services.EntryMonthlyRollupService;
+import com.wallet.wallet_api.services.ExchangeRateProvider;
+import com.wallet.wallet_api.services.TransferRetryExecutor;
+import com.wallet.wallet_api.services.UserProfileCache;
 import com.wallet.wallet_api.services.UserServiceImpl;
+import com.wallet.wallet_api.services.WalletBalanceSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.wallet.wallet_api.services.UserServiceImpl.WALLET_NOT_FOUND;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -50,12 +78,38 @@ class UserServiceImplTest {
     public static final String VAL_OF_300 = "300.00";
     public static final String VAL_OF_400 = "400.00";
 
-    @InjectMocks
     private UserServiceImpl userService;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private TransferCommandRepository transferCommandRepository;
+
+    @Mock
+    private TransferWorkerLockRepository transferWorkerLockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private WalletBalanceSnapshotService walletBalanceSnapshotService;
+
+    @Mock
+    private EntryMonthlyRollupService entryMonthlyRollupService;
+
+    @Mock
+    private EntryArchiveService entryArchiveService;
+
     private AutoCloseable closeable;
 
     @Mock
@@ -70,6 +124,20 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        when(transferWorkerLockRepository.findByWorkerForUpdateSkipLocked(anyInt()))
+                .thenAnswer(invocation -> Optional.of(new TransferWorkerLock(invocation.getArgument(0))));
+        userService = createUserService(ConcurrencyMode.OPTIMISTIC);
+    }
+
+    private UserServiceImpl createUserService(ConcurrencyMode concurrencyMode) {
+        return new UserServiceImpl(userRepository, walletRepository, entryRepository, transferCommandRepository,
+                transferWorkerLockRepository, entityManager,
+                new TransactionTemplate(transactionManager),
+                new TransferRetryExecutor(new SimpleMeterRegistry(), concurrencyMode, 1, 0, 0),
+                walletBalanceSnapshotService, entryMonthlyRollupService, entryArchiveService,
+                new UserProfileCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)),
+                new ExchangeRateProvider(new DefaultResourceLoader(), "classpath:exchange-rates.csv",
+                        mock(JdbcTemplate.class), new SimpleMeterRegistry()), concurrencyMode);
     }
 
     @AfterEach
@@ -126,6 +194,55 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).findById(USER_ID);
     }
 
+    @Test
+    void testGetUserProfile_CachedUntilWalletAdded() {
+        User user = new User();
+        user.setId(USER_ID);
+        Wallet userWallet = new Wallet();
+        userWallet.setId(WALLET_ID);
+        userWallet.setBalance(new BigDecimal(VAL_OF_100));
+        userWallet.setEntries(List.of(createEntry(LocalDateTime.now(), new BigDecimal(VAL_OF_100))));
+        user.setWallets(new ArrayList<>(List.of(userWallet)));
+        when(userRepository.findProfileById(USER_ID)).thenReturn(Optional.of(user));
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        ResponseUserDTO first = userService.getUserProfile(USER_ID);
+        ResponseUserDTO second = userService.getUserProfile(USER_ID);
+
+        assertSame(first, second);
+        assertEquals(List.of(new WalletDTO(WALLET_ID, new BigDecimal(VAL_OF_100), null)), first.getWallets());
+        verify(userRepository, times(1)).findProfileById(USER_ID);
+
+        userService.addWalletToUser(USER_ID, new Wallet());
+        userService.getUserProfile(USER_ID);
+
+        verify(userRepository, times(2)).findProfileById(USER_ID);
+    }
+
+    @Test
+    void testGetUserProfile_MissIsReadFromPrimary() {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setWallets(new ArrayList<>());
+        when(userRepository.findProfileById(USER_ID)).thenReturn(Optional.of(user));
+
+        userService.getUserProfile(USER_ID);
+
+        // read-write transactions are routed to the primary, so a reload after an eviction never sees a lagging replica
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertFalse(definition.getValue().isReadOnly());
+    }
+
+    @Test
+    void testGetUserProfile_NotFound() {
+        when(userRepository.findProfileById(USER_ID)).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(ResourceNotFoundException.class, () -> userService.getUserProfile(USER_ID));
+
+        assertEquals("User not found with ID: " + USER_ID, exception.getMessage());
+    }
+
     @Test
     void testGetUserById_NotFound() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
@@ -137,17 +254,24 @@ class UserServiceImplTest {
     }
 
     @Test
-    void testGetAllUsers_Success() {
-        List<User> users = new ArrayList<>();
-        users.add(new User());
-        users.add(new User());
-        when(userRepository.findAll()).thenReturn(users);
-
-        List<User> result = userService.getAllUsers();
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(userRepository, times(1)).findAll();
+    void testGetUsersPage_ReturnsCursorWhenMoreUsersFollow() {
+        User first = new User();
+        first.setId(1L);
+        User second = new User();
+        second.setId(2L);
+        when(userRepository.findPageAfter(null, PageRequest.of(0, 2))).thenReturn(new ArrayList<>(List.of(first, second)));
+        when(userRepository.findPageAfter(1L, PageRequest.of(0, 2))).thenReturn(new ArrayList<>(List.of(second)));
+
+        UserPageDTO firstPage = userService.getUsersPage(null, 1);
+        UserPageDTO lastPage = userService.getUsersPage(firstPage.getNextCursor(), 1);
+
+        assertEquals(List.of(1L), firstPage.getUsers().stream().map(ResponseUserDTO::getId).toList());
+        assertEquals(List.of(2L), lastPage.getUsers().stream().map(ResponseUserDTO::getId).toList());
+        assertNull(lastPage.getNextCursor());
+        verify(userRepository).fetchRoles(List.of(first));
+        verify(userRepository).fetchWallets(List.of(first));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage("not a cursor", 1));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(null, 0));
     }
 
     @Test
@@ -158,7 +282,8 @@ class UserServiceImplTest {
         wallet.setId(WALLET_ID);
         wallet.setBalance(BigDecimal.ZERO);
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-        when(userRepository.save(user)).thenReturn(user);
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.empty());
+        when(walletRepository.save(wallet)).thenReturn(wallet);
 
         Wallet result = userService.addWalletToUser(USER_ID, wallet);
 
@@ -166,7 +291,7 @@ class UserServiceImplTest {
         assertEquals(WALLET_ID, result.getId());
         assertEquals(user, result.getUser());
         verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times(1)).save(user);
+        verify(walletRepository, times(1)).save(wallet);
     }
 
     @Test
@@ -178,7 +303,7 @@ class UserServiceImplTest {
 
         assertTrue(exception.getMessage().contains("User not found with ID: " + USER_ID));
         verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, never()).save(any(User.class));
+        verify(walletRepository, never()).save(any(Wallet.class));
     }
 
 
@@ -199,14 +324,20 @@ class UserServiceImplTest {
         depositDTO.setAmount(DEPOSIT_AMOUNT);
         depositDTO.setOperationType(EntryType.DEPOSIT.toString());
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
 
         userService.depositOrWithdrawal(depositDTO);
 
-        assertEquals(INITIAL_BALANCE.add(DEPOSIT_AMOUNT), wallet.getBalance());
-
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times(1)).save(user);
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        verify(walletRepository, times(1)).increaseBalance(WALLET_ID, DEPOSIT_AMOUNT);
+        verify(entryRepository, times(1)).saveAll(argThat((List<Entry> entries) -> entries.size() == 1
+                && entries.get(0).getType() == EntryType.DEPOSIT
+                && entries.get(0).getOperationType() == EntryOperationType.DEBIT
+                && entries.get(0).getAmount().equals(DEPOSIT_AMOUNT)
+                && entries.get(0).getWallet() == wallet));
+        verify(walletRepository, never()).save(any(Wallet.class));
+        assertTrue(wallet.getEntries().isEmpty());
+        verify(userRepository, never()).findById(any());
     }
 
 
@@ -226,14 +357,40 @@ class UserServiceImplTest {
         withdrawalDTO.setAmount(WITHDRAWAL_AMOUNT);
         withdrawalDTO.setOperationType(EntryType.WITHDRAWAL.toString());
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.decreaseBalanceIfSufficient(WALLET_ID, WITHDRAWAL_AMOUNT)).thenReturn(1);
 
         userService.depositOrWithdrawal(withdrawalDTO);
 
-        assertEquals(INITIAL_BALANCE.subtract(WITHDRAWAL_AMOUNT), wallet.getBalance());
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        verify(walletRepository, times(1)).decreaseBalanceIfSufficient(WALLET_ID, WITHDRAWAL_AMOUNT);
+        verify(entryRepository, times(1)).saveAll(argThat((List<Entry> entries) -> entries.size() == 1
+                && entries.get(0).getType() == EntryType.WITHDRAWAL
+                && entries.get(0).getOperationType() == EntryOperationType.CREDIT));
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
 
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times(1)).save(user);
+    @Test
+    void testCreateEntry_WithdrawalInsufficientFunds() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setCurrency(CurrencyCode.BGN);
+
+        DepositWithdrawalDTO withdrawalDTO = new DepositWithdrawalDTO();
+        withdrawalDTO.setUserId(USER_ID);
+        withdrawalDTO.setWalletId(WALLET_ID);
+        withdrawalDTO.setAmount(new BigDecimal(VAL_OF_300));
+        withdrawalDTO.setOperationType(EntryType.WITHDRAWAL.toString());
+
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.decreaseBalanceIfSufficient(WALLET_ID, new BigDecimal(VAL_OF_300))).thenReturn(0);
+
+        Throwable thrown = catchThrowable(() -> userService.depositOrWithdrawal(withdrawalDTO));
+
+        assertThat(thrown).isInstanceOf(InsufficientFundsException.class)
+                .hasMessageContaining("The withdrawal amount exceeds the current balance");
+        verify(entryRepository, never()).saveAll(any());
     }
 
     @Test
@@ -247,13 +404,13 @@ class UserServiceImplTest {
         depositDTO.setOperationType(EntryOperationType.DEBIT.toString());
         depositDTO.setAmount(BigDecimal.valueOf(200));
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.empty());
 
         Throwable thrown = catchThrowable(() -> userService.depositOrWithdrawal(depositDTO));
 
         assertThat(thrown).isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining(WALLET_NOT_FOUND + depositDTO.getWalletId());
-        verify(userRepository, never()).save(user);
+                .hasMessageContaining(String.format(WALLET_NOT_FOUND, USER_ID, depositDTO.getWalletId()));
+        verify(walletRepository, never()).save(any(Wallet.class));
     }
 
 
@@ -282,18 +439,24 @@ class UserServiceImplTest {
         transferDTO.setReceiverWalletId(RECEIVER_WALLET_ID);
         transferDTO.setAmount(TRANSFER_AMOUNT);
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-        when(userRepository.findById(RECEIVER_ID)).thenReturn(Optional.of(receiver));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findByIdAndUserId(RECEIVER_WALLET_ID, RECEIVER_ID)).thenReturn(Optional.of(receiverWallet));
 
         userService.transfer(transferDTO);
 
-        assertEquals(INITIAL_BALANCE.subtract(TRANSFER_AMOUNT), wallet.getBalance());
+        assertEquals(new BigDecimal("150.00"), wallet.getBalance());
         assertEquals(new BigDecimal("150.00"), receiverWallet.getBalance());
-
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times(1)).findById(RECEIVER_ID);
-        verify(userRepository, times(1)).save(user);
-        verify(userRepository, times(1)).save(receiver);
+        InOrder inOrder = inOrder(walletRepository, entryRepository);
+        inOrder.verify(walletRepository).flush();
+        inOrder.verify(entryRepository, times(1)).saveAll(argThat((List<Entry> entries) -> entries.size() == 2
+                && entries.get(0).getWallet() == wallet
+                && entries.get(0).getOperationType() == EntryOperationType.CREDIT
+                && entries.get(1).getWallet() == receiverWallet
+                && entries.get(1).getOperationType() == EntryOperationType.DEBIT));
+
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        verify(walletRepository, times(1)).findByIdAndUserId(RECEIVER_WALLET_ID, RECEIVER_ID);
+        verify(walletRepository, never()).save(any(Wallet.class));
     }
 
     @Test
@@ -321,18 +484,17 @@ class UserServiceImplTest {
         transferDTO.setReceiverWalletId(RECEIVER_WALLET_ID);
         transferDTO.setAmount(TRANSFER_AMOUNT);
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-        when(userRepository.findById(RECEIVER_ID)).thenReturn(Optional.of(receiver));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findByIdAndUserId(RECEIVER_WALLET_ID, RECEIVER_ID)).thenReturn(Optional.of(receiverWallet));
 
         userService.transfer(transferDTO);
 
-        assertEquals(INITIAL_BALANCE.subtract(TRANSFER_AMOUNT), wallet.getBalance());
-        assertEquals(new BigDecimal("128.5000"), receiverWallet.getBalance());
+        assertEquals(new BigDecimal("150.00"), wallet.getBalance());
+        assertEquals(new BigDecimal("128.50"), receiverWallet.getBalance());
 
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times(1)).findById(RECEIVER_ID);
-        verify(userRepository, times(1)).save(user);
-        verify(userRepository, times(1)).save(receiver);
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        verify(walletRepository, times(1)).findByIdAndUserId(RECEIVER_WALLET_ID, RECEIVER_ID);
+        verify(walletRepository, never()).save(any(Wallet.class));
     }
 
 
@@ -361,63 +523,399 @@ class UserServiceImplTest {
         transferDTO.setReceiverWalletId(RECEIVER_WALLET_ID);
         transferDTO.setAmount(new BigDecimal(VAL_OF_100));
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-        when(userRepository.findById(RECEIVER_ID)).thenReturn(Optional.of(receiver));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findByIdAndUserId(RECEIVER_WALLET_ID, RECEIVER_ID)).thenReturn(Optional.of(receiverWallet));
 
         Throwable thrown = catchThrowable(() -> userService.transfer(transferDTO));
 
         assertThat(thrown).isInstanceOf(InsufficientFundsException.class)
                 .hasMessageContaining("The withdrawal amount exceeds the current balance");
 
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, never()).save(any(User.class));
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        assertEquals(new BigDecimal("50.00"), wallet.getBalance());
+        assertEquals(new BigDecimal(VAL_OF_100), receiverWallet.getBalance());
+        verify(walletRepository, never()).flush();
+        verify(entryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testCreateTransfer_PessimisticLocksWalletsInIdOrder() {
+        userService = createUserService(ConcurrencyMode.PESSIMISTIC);
+        Wallet wallet = new Wallet();
+        wallet.setId(RECEIVER_WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(WALLET_ID);
+        receiverWallet.setCurrency(CurrencyCode.USD);
+        receiverWallet.setBalance(new BigDecimal(VAL_OF_100));
+
+        TransferDTO transferDTO = new TransferDTO();
+        transferDTO.setUserId(USER_ID);
+        transferDTO.setWalletId(RECEIVER_WALLET_ID);
+        transferDTO.setReceiverId(RECEIVER_ID);
+        transferDTO.setReceiverWalletId(WALLET_ID);
+        transferDTO.setAmount(TRANSFER_AMOUNT);
+
+        when(walletRepository.findByIdAndUserIdForUpdate(RECEIVER_WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findByIdAndUserIdForUpdate(WALLET_ID, RECEIVER_ID)).thenReturn(Optional.of(receiverWallet));
+
+        userService.transfer(transferDTO);
+
+        InOrder inOrder = inOrder(walletRepository);
+        inOrder.verify(walletRepository).findByIdAndUserIdForUpdate(WALLET_ID, RECEIVER_ID);
+        inOrder.verify(walletRepository).findByIdAndUserIdForUpdate(RECEIVER_WALLET_ID, USER_ID);
+        inOrder.verify(walletRepository).flush();
+        verify(walletRepository, never()).findByIdAndUserId(any(), any());
+        assertEquals(new BigDecimal("150.00"), wallet.getBalance());
+        assertEquals(new BigDecimal("150.00"), receiverWallet.getBalance());
     }
 
 
     @Test
-    void testGetWallets_Success() {
-        Long userId = USER_ID;
-        Wallet wallet1 = new Wallet();
-        wallet1.setId(1L);
-        Wallet wallet2 = new Wallet();
-        wallet2.setId(2L);
+    void testTransferBatch_ReportsEachTransfer() {
+        User user = new User();
+        user.setId(USER_ID);
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setUser(user);
+
+        User receiver = new User();
+        receiver.setId(RECEIVER_ID);
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(RECEIVER_WALLET_ID);
+        receiverWallet.setCurrency(CurrencyCode.USD);
+        receiverWallet.setBalance(new BigDecimal(VAL_OF_100));
+        receiverWallet.setUser(receiver);
+
+        List<TransferDTO> transfers = List.of(
+                createTransferDTO(USER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, new BigDecimal(VAL_OF_100)),
+                createTransferDTO(USER_ID, WALLET_ID, USER_ID, WALLET_ID, TRANSFER_AMOUNT),
+                createTransferDTO(RECEIVER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, TRANSFER_AMOUNT),
+                createTransferDTO(USER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, new BigDecimal(VAL_OF_200)),
+                createTransferDTO(USER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, TRANSFER_AMOUNT));
+
+        when(walletRepository.findAllByIdInOrderById(Set.of(WALLET_ID, RECEIVER_WALLET_ID)))
+                .thenReturn(List.of(wallet, receiverWallet));
+
+        BatchTransferResultDTO result = userService.transferBatch(transfers);
+
+        assertEquals(2, result.getCompleted());
+        assertEquals(3, result.getFailed());
+        assertEquals(TransferStatus.COMPLETED, result.getResults().get(0).getStatus());
+        assertEquals("Cannot transfer to the same wallet!", result.getResults().get(1).getMessage());
+        assertEquals(String.format(WALLET_NOT_FOUND, RECEIVER_ID, WALLET_ID), result.getResults().get(2).getMessage());
+        assertEquals("The withdrawal amount exceeds the current balance", result.getResults().get(3).getMessage());
+        assertEquals(TransferStatus.COMPLETED, result.getResults().get(4).getStatus());
+        assertEquals(new BigDecimal("50.00"), wallet.getBalance());
+        assertEquals(new BigDecimal("250.00"), receiverWallet.getBalance());
+        verify(walletRepository, times(1)).findAllByIdInOrderById(any());
+        verify(walletRepository, times(1)).flush();
+        verify(entryRepository, times(1)).saveAll(argThat((List<Entry> entries) -> entries.size() == 4));
+    }
+
+    @Test
+    void testTransferBatch_EmptyBatch() {
+        Throwable thrown = catchThrowable(() -> userService.transferBatch(List.of()));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(walletRepository, entryRepository);
+    }
+
+    @Test
+    void testSubmitTransfer_OnlyWritesTheCommand() {
+        TransferDTO transferDTO = createTransferDTO(USER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, TRANSFER_AMOUNT);
+        when(transferCommandRepository.save(any(TransferCommand.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferCommand command = userService.submitTransfer(transferDTO);
+
+        assertEquals(TransferStatus.PENDING, command.getStatus());
+        assertEquals(transferDTO, command.toTransfer());
+        verify(transferCommandRepository, times(1)).save(command);
+        verifyNoInteractions(walletRepository, entryRepository);
+    }
+
+    @Test
+    void testSubmitTransfer_InvalidTransfer() {
+        Throwable thrown = catchThrowable(() -> userService.submitTransfer(
+                createTransferDTO(USER_ID, WALLET_ID, USER_ID, WALLET_ID, TRANSFER_AMOUNT)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot transfer to the same wallet!");
+        verifyNoInteractions(transferCommandRepository);
+    }
+
+    @Test
+    void testProcessTransferCommands_MarksEachOutcome() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setUser(new User());
+        wallet.getUser().setId(USER_ID);
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(RECEIVER_WALLET_ID);
+        receiverWallet.setCurrency(CurrencyCode.USD);
+        receiverWallet.setBalance(new BigDecimal(VAL_OF_100));
+        receiverWallet.setUser(new User());
+        receiverWallet.getUser().setId(RECEIVER_ID);
+
+        List<TransferCommand> commands = List.of(
+                createTransferCommand(10L, new BigDecimal(VAL_OF_100)),
+                createTransferCommand(11L, new BigDecimal(VAL_OF_200)),
+                createTransferCommand(12L, TRANSFER_AMOUNT));
+        when(transferCommandRepository.findPending(0, 2, PageRequest.of(0, 10))).thenReturn(commands);
+        when(walletRepository.findAllByIdInOrderById(Set.of(WALLET_ID, RECEIVER_WALLET_ID)))
+                .thenReturn(List.of(wallet, receiverWallet));
+        when(transferCommandRepository.markProcessed(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+
+        int taken = userService.processTransferCommands(0, 2, 10);
+
+        // applied in order: the second transfer no longer fits the balance left by the first
+        assertEquals(3, taken);
+        assertEquals(TRANSFER_AMOUNT, wallet.getBalance());
+        verify(transferCommandRepository).markProcessed(eq(List.of(10L, 12L)), eq(TransferStatus.COMPLETED), isNull(), any());
+        verify(transferCommandRepository).markProcessed(eq(List.of(11L)), eq(TransferStatus.FAILED),
+                eq("The withdrawal amount exceeds the current balance"), any());
+        verify(walletRepository, times(1)).findAllByIdInOrderById(any());
+    }
+
+    @Test
+    void testProcessTransferCommands_LeavesCommandsProcessedElsewherePending() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setUser(new User());
+        wallet.getUser().setId(USER_ID);
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(RECEIVER_WALLET_ID);
+        receiverWallet.setCurrency(CurrencyCode.USD);
+        receiverWallet.setBalance(new BigDecimal(VAL_OF_100));
+        receiverWallet.setUser(new User());
+        receiverWallet.getUser().setId(RECEIVER_ID);
 
+        when(transferCommandRepository.findPending(0, 1, PageRequest.of(0, 10)))
+                .thenReturn(List.of(createTransferCommand(10L, TRANSFER_AMOUNT)));
+        when(walletRepository.findAllByIdInOrderById(Set.of(WALLET_ID, RECEIVER_WALLET_ID)))
+                .thenReturn(List.of(wallet, receiverWallet));
+        when(transferCommandRepository.markProcessed(any(), any(), any(), any())).thenReturn(0);
+
+        int taken = userService.processTransferCommands(0, 1, 10);
+
+        assertEquals(0, taken);
+        verify(transferCommandRepository, never()).markProcessed(any(), eq(TransferStatus.FAILED), any(), any());
+    }
+
+    @Test
+    void testProcessTransferCommands_WorkerClaimedByAnotherInstance() {
+        when(transferWorkerLockRepository.findByWorkerForUpdateSkipLocked(0)).thenReturn(Optional.empty());
+        when(transferWorkerLockRepository.existsById(0)).thenReturn(true);
+
+        int taken = userService.processTransferCommands(0, 1, 10);
+
+        assertEquals(0, taken);
+        verify(transferCommandRepository, never()).findPending(anyInt(), anyInt(), any());
+        verify(transferWorkerLockRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testProcessTransferCommands_CreatesMissingWorkerLock() {
+        when(transferWorkerLockRepository.findByWorkerForUpdateSkipLocked(0)).thenReturn(Optional.empty());
+        when(transferCommandRepository.findPending(0, 1, PageRequest.of(0, 10))).thenReturn(List.of());
+
+        userService.processTransferCommands(0, 1, 10);
+
+        verify(transferWorkerLockRepository).saveAndFlush(new TransferWorkerLock(0));
+        verify(transferCommandRepository).findPending(0, 1, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void testProcessTransferCommands_DatabaseFailureLeavesCommandsPending() {
+        when(transferCommandRepository.findPending(0, 1, PageRequest.of(0, 10)))
+                .thenReturn(List.of(createTransferCommand(10L, TRANSFER_AMOUNT)));
+        when(walletRepository.findAllByIdInOrderById(any()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+
+        int taken = userService.processTransferCommands(0, 1, 10);
+
+        assertEquals(0, taken);
+        verify(transferCommandRepository, never()).markProcessed(any(), any(), any(), any());
+    }
+
+    @Test
+    void testProcessTransferCommands_FailedBatchIsRetriedOneByOne() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setUser(new User());
+        wallet.getUser().setId(USER_ID);
+        Wallet receiverWallet = new Wallet();
+        receiverWallet.setId(RECEIVER_WALLET_ID);
+        receiverWallet.setCurrency(CurrencyCode.USD);
+        receiverWallet.setBalance(new BigDecimal(VAL_OF_100));
+        receiverWallet.setUser(new User());
+        receiverWallet.getUser().setId(RECEIVER_ID);
+
+        TransferCommand first = createTransferCommand(10L, TRANSFER_AMOUNT);
+        TransferCommand second = createTransferCommand(11L, TRANSFER_AMOUNT);
+        when(transferCommandRepository.findPending(0, 1, PageRequest.of(0, 10))).thenReturn(List.of(first, second));
+        when(transferCommandRepository.findById(10L)).thenReturn(Optional.of(first));
+        when(transferCommandRepository.findById(11L)).thenReturn(Optional.of(second));
+        // the batch fails, then the first command applies on its own and the second still fails
+        when(walletRepository.findAllByIdInOrderById(Set.of(WALLET_ID, RECEIVER_WALLET_ID)))
+                .thenThrow(new IllegalStateException("Unexpected error"))
+                .thenReturn(List.of(wallet, receiverWallet))
+                .thenThrow(new IllegalStateException("Unexpected error"));
+        when(transferCommandRepository.markProcessed(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+
+        int taken = userService.processTransferCommands(0, 1, 10);
+
+        assertEquals(2, taken);
+        verify(transferCommandRepository).markProcessed(eq(List.of(10L)), eq(TransferStatus.COMPLETED), isNull(), any());
+        verify(transferCommandRepository).markProcessed(eq(List.of(11L)), eq(TransferStatus.FAILED),
+                eq("Failed to apply transfer"), any());
+    }
+
+    @Test
+    void testImportEntriesFromCSV_ReportsRejectedRows() {
         User user = new User();
-        user.setId(userId);
-        user.setWallets(Arrays.asList(wallet1, wallet2));
+        user.setId(USER_ID);
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setCurrency(CurrencyCode.USD);
+        wallet.setBalance(INITIAL_BALANCE);
+        wallet.setUser(user);
+        String csv = String.join("\n",
+                "User ID,Wallet ID,Amount,Operation Type",
+                USER_ID + "," + WALLET_ID + "," + VAL_OF_100 + ",DEPOSIT",
+                USER_ID + "," + WALLET_ID + "," + VAL_OF_400 + ",WITHDRAWAL",
+                USER_ID + "," + WALLET_ID + ",abc,DEPOSIT",
+                USER_ID + "," + WALLET_ID + "," + VAL_OF_100 + ",TRANSFER",
+                RECEIVER_ID + "," + WALLET_ID + "," + VAL_OF_100 + ",DEPOSIT",
+                USER_ID + "," + WALLET_ID + "," + VAL_OF_300 + ",WITHDRAWAL");
+        List<String[]> rejectedRows = new ArrayList<>();
+
+        when(walletRepository.findAllByIdInOrderById(Set.of(WALLET_ID))).thenReturn(List.of(wallet));
+
+        EntryImportResultDTO result = userService.importEntriesFromCSV(new StringReader(csv), rejectedRows::add);
+
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getRejected());
+        assertEquals(List.of("3", "4", "2", "5"), rejectedRows.stream().map(row -> row[0]).toList());
+        assertEquals("Operation type must be DEPOSIT or WITHDRAWAL", rejectedRows.get(1)[5]);
+        assertEquals("The withdrawal amount exceeds the current balance", rejectedRows.get(2)[5]);
+        assertEquals(String.format(WALLET_NOT_FOUND, RECEIVER_ID, WALLET_ID), rejectedRows.get(3)[5]);
+        assertEquals(0, new BigDecimal("0.00").compareTo(wallet.getBalance()));
+        verify(walletRepository, times(1)).findAllByIdInOrderById(any());
+        verify(entryRepository, times(1)).saveAll(argThat((List<Entry> entries) -> entries.size() == 2
+                && entries.get(0).getOperationType() == EntryOperationType.DEBIT
+                && entries.get(1).getOperationType() == EntryOperationType.CREDIT));
+    }
+
+    @Test
+    void testImportEntriesFromCSV_InvalidHeader() {
+        Throwable thrown = catchThrowable(() -> userService.importEntriesFromCSV(
+                new StringReader("Wallet ID,Amount\n2,100.00"), row -> { }));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(walletRepository, entryRepository);
+    }
+
+    private static TransferCommand createTransferCommand(Long id, BigDecimal amount) {
+        TransferCommand command = new TransferCommand(
+                createTransferDTO(USER_ID, WALLET_ID, RECEIVER_ID, RECEIVER_WALLET_ID, amount));
+        command.setId(id);
+        return command;
+    }
+
+    private static TransferDTO createTransferDTO(Long userId, Long walletId, Long receiverId, Long receiverWalletId,
+                                                 BigDecimal amount) {
+        TransferDTO transferDTO = new TransferDTO();
+        transferDTO.setUserId(userId);
+        transferDTO.setWalletId(walletId);
+        transferDTO.setReceiverId(receiverId);
+        transferDTO.setReceiverWalletId(receiverWalletId);
+        transferDTO.setAmount(amount);
+        return transferDTO;
+    }
+
+    @Test
+    void testGetWallets_Success() {
+        Long userId = USER_ID;
+        WalletView wallet1 = mock(WalletView.class);
+        when(wallet1.getId()).thenReturn(1L);
+        WalletView wallet2 = mock(WalletView.class);
+        when(wallet2.getId()).thenReturn(2L);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.findViewsByUserId(userId)).thenReturn(List.of(wallet1, wallet2));
 
-        List<Wallet> wallets = userService.getWallets(userId);
+        List<WalletView> wallets = userService.getWallets(userId);
 
         assertNotNull(wallets);
         assertEquals(2, wallets.size());
         assertEquals(1L, wallets.get(0).getId());
         assertEquals(2L, wallets.get(1).getId());
 
-        verify(userRepository, times(1)).findById(userId);
+        verify(walletRepository, times(1)).findViewsByUserId(userId);
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void testGetWallets_UserWithoutWallets() {
+        Long userId = USER_ID;
+        when(walletRepository.findViewsByUserId(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertTrue(userService.getWallets(userId).isEmpty());
     }
 
     @Test
     void testGetWallets_UserNotFound() {
         Long userId = USER_ID;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(walletRepository.findViewsByUserId(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> userService.getWallets(userId));
         assertEquals("User not found with ID: " + userId, exception.getMessage());
 
-        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1)).existsById(userId);
     }
 
     @Test
     void testGetWallets_UnexpectedException() {
         Long userId = USER_ID;
-        when(userRepository.findById(userId)).thenThrow(new RuntimeException("Unexpected error"));
+        when(walletRepository.findViewsByUserId(userId)).thenThrow(new RuntimeException("Unexpected error"));
 
         CustomException exception = assertThrows(CustomException.class, () -> userService.getWallets(userId));
         assertEquals("Failed to fetch wallets for user ID " + userId, exception.getMessage());
 
-        verify(userRepository, times(1)).findById(userId);
+        verify(walletRepository, times(1)).findViewsByUserId(userId);
+    }
+
+    @Test
+    void testGetWalletView_Success() {
+        WalletView view = mock(WalletView.class);
+        when(view.getId()).thenReturn(WALLET_ID);
+        when(walletRepository.findViewByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(view));
+
+        assertSame(view, userService.getWalletView(USER_ID, WALLET_ID));
+        verify(walletRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    @Test
+    void testGetWalletView_NotFound() {
+        when(walletRepository.findViewByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.empty());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> userService.getWalletView(USER_ID, WALLET_ID));
+        assertEquals(String.format(WALLET_NOT_FOUND, USER_ID, WALLET_ID), exception.getMessage());
     }
 
 
@@ -429,28 +927,14 @@ class UserServiceImplTest {
         Wallet wallet = new Wallet();
         wallet.setId(walletId);
 
-        List<Wallet> wallets = List.of(wallet);
-
-        Mockito.when(userRepository.findWalletsByUserId(userId)).thenReturn(wallets);
+        Mockito.when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
 
         Wallet result = userService.getWalletByUserIdAndWalletId(userId, walletId);
 
         assertNotNull(result);
         assertEquals(walletId, result.getId());
-        Mockito.verify(userRepository, Mockito.times(1)).findWalletsByUserId(userId);
-    }
-
-    @Test
-    void testGetWalletByUserIdAndWalletId_NoWalletsFound() {
-        Long userId = USER_ID;
-
-        Mockito.when(userRepository.findWalletsByUserId(userId)).thenReturn(Collections.emptyList());
-
-        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
-                () -> userService.getWalletByUserIdAndWalletId(userId, WALLET_ID));
-
-        assertEquals("No wallets found for userId " + userId, exception.getMessage());
-        Mockito.verify(userRepository, Mockito.times(1)).findWalletsByUserId(userId);
+        Mockito.verify(walletRepository, Mockito.times(1)).findByIdAndUserId(walletId, userId);
+        Mockito.verify(userRepository, Mockito.never()).findWalletsByUserId(any());
     }
 
     @Test
@@ -458,31 +942,26 @@ class UserServiceImplTest {
         Long userId = USER_ID;
         Long walletId = WALLET_ID;
 
-        Wallet wallet = new Wallet();
-        wallet.setId(20L);
-
-        List<Wallet> wallets = List.of(wallet);
-
-        Mockito.when(userRepository.findWalletsByUserId(userId)).thenReturn(wallets);
+        Mockito.when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.empty());
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> userService.getWalletByUserIdAndWalletId(userId, walletId));
 
         assertEquals(String.format(WALLET_NOT_FOUND, userId, walletId), exception.getMessage());
-        Mockito.verify(userRepository, Mockito.times(1)).findWalletsByUserId(userId);
+        Mockito.verify(walletRepository, Mockito.times(1)).findByIdAndUserId(walletId, userId);
     }
 
     @Test
     void testGetWalletByUserIdAndWalletId_UnexpectedException() {
         Long userId = USER_ID;
 
-        Mockito.when(userRepository.findWalletsByUserId(userId)).thenThrow(new RuntimeException("Database error"));
+        Mockito.when(walletRepository.findByIdAndUserId(WALLET_ID, userId)).thenThrow(new RuntimeException("Database error"));
 
         CustomException exception = assertThrows(CustomException.class,
                 () -> userService.getWalletByUserIdAndWalletId(userId, WALLET_ID));
 
         assertEquals("An unexpected error occurred while fetching the wallet", exception.getMessage());
-        Mockito.verify(userRepository, Mockito.times(1)).findWalletsByUserId(userId);
+        Mockito.verify(walletRepository, Mockito.times(1)).findByIdAndUserId(WALLET_ID, userId);
     }
 
     ///
@@ -491,44 +970,145 @@ class UserServiceImplTest {
         LocalDateTime startDate = LocalDateTime.of(2024, 12, 1, 0, 0, 0, 0);
         LocalDateTime endDate = LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999999);
 
-        when(wallet.getEntries()).thenReturn(Arrays.asList(entry1, entry2));
+        List<EntryTotal> totals = Arrays.asList(
+                createEntryTotal(EntryType.DEPOSIT, EntryOperationType.DEBIT, BigDecimal.valueOf(100)),
+                createEntryTotal(EntryType.TRANSFER, EntryOperationType.DEBIT, BigDecimal.valueOf(20)),
+                createEntryTotal(EntryType.WITHDRAWAL, EntryOperationType.CREDIT, BigDecimal.valueOf(50)));
 
-        when(entry1.getDate()).thenReturn(LocalDateTime.of(2024, 12, 5, 10, 0, 0, 0));
-        when(entry1.getOperationType()).thenReturn(EntryOperationType.DEBIT);
-        when(entry1.getAmount()).thenReturn(BigDecimal.valueOf(100));
+        when(wallet.getId()).thenReturn(WALLET_ID);
+        when(wallet.getCurrency()).thenReturn(CurrencyCode.EUR);
+        when(entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate)).thenReturn(totals);
 
-        when(entry2.getDate()).thenReturn(LocalDateTime.of(2024, 12, 10, 12, 0, 0, 0));
-        when(entry2.getOperationType()).thenReturn(EntryOperationType.CREDIT);
-        when(entry2.getAmount()).thenReturn(BigDecimal.valueOf(50));
-
-        EntriesSummary summary = userService.calculateEntrySummary(wallet, startDate, endDate);
+        EntriesSummary summary = userService.calculateEntrySummary(wallet, startDate, endDate, false);
 
         assertNotNull(summary);
-        assertEquals(BigDecimal.valueOf(100), summary.getTotalDebit());
-        assertEquals(BigDecimal.valueOf(50), summary.getTotalCredit());
+        assertEquals(new BigDecimal("120.00"), summary.getTotalDebit());
+        assertEquals(new BigDecimal("50.00"), summary.getTotalCredit());
+        assertEquals(new BigDecimal("100.00"), summary.getTotalDebitByType().get(EntryType.DEPOSIT));
+        assertEquals(new BigDecimal("20.00"), summary.getTotalDebitByType().get(EntryType.TRANSFER));
+        assertEquals(new BigDecimal("50.00"), summary.getTotalCreditByType().get(EntryType.WITHDRAWAL));
+        assertNull(summary.getEntries());
+        verify(entryRepository, never()).findByWalletIdAndDateBetweenOrderByDateAsc(any(), any(), any());
     }
 
     @Test
-    public void testCalculateEntrySummary_NullPointerException() {
-        when(wallet.getEntries()).thenReturn(null);
+    public void testCalculateEntrySummary_IncludeEntries() {
+        LocalDateTime startDate = LocalDateTime.of(2024, 12, 1, 0, 0, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999999);
+
+        when(wallet.getId()).thenReturn(WALLET_ID);
+        when(wallet.getCurrency()).thenReturn(CurrencyCode.EUR);
+        when(entryMonthlyRollupService.sumAmountsByTypeAndOperationType(WALLET_ID, startDate, endDate)).thenReturn(Collections.emptyList());
+        when(entryRepository.findByWalletIdAndDateBetweenOrderByDateAsc(WALLET_ID, startDate, endDate))
+                .thenReturn(Arrays.asList(entry1, entry2));
 
+        EntriesSummary summary = userService.calculateEntrySummary(wallet, startDate, endDate, true);
+
+        assertEquals(new BigDecimal("0.00"), summary.getTotalDebit());
+        assertEquals(new BigDecimal("0.00"), summary.getTotalCredit());
+        assertEquals(2, summary.getEntries().size());
+    }
+
+    @Test
+    public void testCalculateEntrySummary_NullPointerException() {
         CustomException exception = assertThrows(CustomException.class,
-                () -> userService.calculateEntrySummary(wallet, LocalDateTime.now(), LocalDateTime.now()));
+                () -> userService.calculateEntrySummary(null, LocalDateTime.now(), LocalDateTime.now(), false));
 
         assertEquals("Error calculating entry summary: null value encountered", exception.getMessage());
     }
 
     @Test
     public void testCalculateEntrySummary_UnexpectedError() {
-        when(wallet.getEntries()).thenThrow(new RuntimeException("Unexpected error"));
+        when(wallet.getId()).thenReturn(WALLET_ID);
+        when(entryMonthlyRollupService.sumAmountsByTypeAndOperationType(eq(WALLET_ID), any(), any()))
+                .thenThrow(new RuntimeException("Unexpected error"));
 
         CustomException exception = assertThrows(CustomException.class,
-                () -> userService.calculateEntrySummary(wallet, LocalDateTime.now(), LocalDateTime.now()));
+                () -> userService.calculateEntrySummary(wallet, LocalDateTime.now(), LocalDateTime.now(), false));
 
         assertEquals("Failed to calculate entry summary", exception.getMessage());
     }
 
 
+    @Test
+    void testGetEntriesPage_FirstPageWithNextCursor() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        LocalDateTime now = LocalDateTime.of(2024, 12, 10, 12, 0);
+        Entry newest = createEntry(now, new BigDecimal(VAL_OF_100));
+        newest.setId(3L);
+        Entry middle = createEntry(now.minusDays(1), new BigDecimal(VAL_OF_200));
+        middle.setId(2L);
+        Entry oldest = createEntry(now.minusDays(2), new BigDecimal(VAL_OF_300));
+        oldest.setId(1L);
+
+        when(entryRepository.findLatestPage(eq(WALLET_ID), isNull(), isNull(), any()))
+                .thenReturn(Arrays.asList(newest, middle, oldest));
+
+        EntryPageDTO page = userService.getEntriesPage(wallet, null, 2, null, null);
+
+        assertEquals(Arrays.asList(newest, middle), page.getEntries());
+        assertNotNull(page.getNextCursor());
+
+        when(entryRepository.findPageBefore(eq(WALLET_ID), isNull(), isNull(), eq(middle.getDate()), eq(2L), any()))
+                .thenReturn(List.of(oldest));
+
+        EntryPageDTO nextPage = userService.getEntriesPage(wallet, page.getNextCursor(), 2, null, null);
+
+        assertEquals(List.of(oldest), nextPage.getEntries());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void testGetEntriesPage_ContinuesWithArchivedEntries() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        LocalDateTime now = LocalDateTime.of(2024, 12, 10, 12, 0);
+        Entry live = createEntry(now, new BigDecimal(VAL_OF_100));
+        live.setId(3L);
+        Entry archived = createEntry(now.minusYears(2), new BigDecimal(VAL_OF_200));
+        archived.setId(2L);
+        Entry olderArchived = createEntry(now.minusYears(3), new BigDecimal(VAL_OF_300));
+        olderArchived.setId(1L);
+
+        when(entryRepository.findLatestPage(eq(WALLET_ID), isNull(), isNull(), any())).thenReturn(List.of(live));
+        when(entryArchiveService.findPageBefore(WALLET_ID, null, null, now, 3L, 2))
+                .thenReturn(List.of(archived, olderArchived));
+
+        EntryPageDTO page = userService.getEntriesPage(wallet, null, 2, null, null);
+
+        assertEquals(Arrays.asList(live, archived), page.getEntries());
+        assertNotNull(page.getNextCursor());
+
+        when(entryArchiveService.findPageBefore(WALLET_ID, null, null, archived.getDate(), 2L, 3))
+                .thenReturn(List.of(olderArchived));
+
+        EntryPageDTO nextPage = userService.getEntriesPage(wallet, page.getNextCursor(), 2, null, null);
+
+        assertEquals(List.of(olderArchived), nextPage.getEntries());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void testGetEntriesPage_InvalidCursor() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getEntriesPage(wallet, "not-a-cursor", 10, EntryType.DEPOSIT, null));
+        verify(entryRepository, never()).findPageBefore(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetEntriesPage_InvalidSize() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getEntriesPage(wallet, null, UserServiceImpl.MAX_PAGE_SIZE + 1, null, null));
+        verify(entryRepository, never()).findLatestPage(any(), any(), any(), any());
+    }
+
     @Test
     void testCreateEntry_InvalidAmount() {
         User user = new User();
@@ -546,15 +1126,16 @@ class UserServiceImplTest {
         depositWithdrawalDTO.setAmount(new BigDecimal("-50.00")); // Невалидна сума
         depositWithdrawalDTO.setOperationType("DEPOSIT");
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
 
         Throwable thrown = catchThrowable(() -> userService.depositOrWithdrawal(depositWithdrawalDTO));
 
         assertThat(thrown).isInstanceOf(CustomException.class)
                 .hasMessageContaining("Amount must be positive");
 
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, never()).save(any(User.class));
+        verify(walletRepository, times(1)).findByIdAndUserId(WALLET_ID, USER_ID);
+        verify(walletRepository, never()).increaseBalance(any(), any());
+        verify(entryRepository, never()).saveAll(any());
     }
 
     @Test
@@ -575,14 +1156,13 @@ class UserServiceImplTest {
         transferDTO.setReceiverWalletId(WALLET_ID);
         transferDTO.setAmount(TRANSFER_AMOUNT);
 
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-
         Throwable thrown = catchThrowable(() -> userService.transfer(transferDTO));
 
         assertThat(thrown).isInstanceOf(CustomException.class)
                 .hasMessageContaining("Cannot transfer to the same wallet!");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(walletRepository, never()).findByIdAndUserId(any(), any());
+        verify(walletRepository, never()).save(any(Wallet.class));
     }
 
     @Test
@@ -595,73 +1175,55 @@ class UserServiceImplTest {
         user.getWallets().add(wallet);
 
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(WALLET_ID, USER_ID)).thenReturn(Optional.of(wallet));
 
         Throwable thrown = catchThrowable(() -> userService.addWalletToUser(USER_ID, wallet));
 
         assertThat(thrown).isInstanceOf(CustomException.class)
                 .hasMessageContaining("Failed to add wallet to user with ID " + user.getId());
-        verify(userRepository, never()).save(user);
+        verify(walletRepository, never()).save(wallet);
     }
 
     @Test
-    void testGetEntriesForCSV_WithEntriesInDateRange() {
+    void testStreamEntriesForCSV_ArchivedEntriesFirst() {
         Wallet wallet = new Wallet();
-        List<Entry> entries = new ArrayList<>();
+        wallet.setId(WALLET_ID);
         LocalDateTime now = LocalDateTime.now();
-
-        entries.add(createEntry(now.minusDays(1), new BigDecimal(VAL_OF_100)));
-        entries.add(createEntry(now, new BigDecimal(VAL_OF_200)));
-        entries.add(createEntry(now.plusDays(1), new BigDecimal(VAL_OF_300)));
-
-        wallet.setEntries(entries);
-
         LocalDateTime startDate = now.minusDays(2);
         LocalDateTime endDate = now.plusDays(2);
-
-        List<Entry> result = userService.getEntriesForCSV(wallet, startDate, endDate);
-
-        assertThat(result.size() == 3).isTrue();
+        Entry archived = createEntry(now.minusDays(1), new BigDecimal(VAL_OF_100));
+        Entry live = createEntry(now, new BigDecimal(VAL_OF_200));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Entry>>getArgument(3).accept(archived);
+            return null;
+        }).when(entryArchiveService).forEachByWalletIdAndDateBetween(eq(WALLET_ID), eq(startDate), eq(endDate), any());
+        when(entryRepository.streamByWalletIdAndDateBetween(WALLET_ID, startDate, endDate)).thenReturn(Stream.of(live));
+
+        List<Entry> result = new ArrayList<>();
+        userService.streamEntriesForCSV(wallet, startDate, endDate, result::add);
+
+        assertEquals(List.of(archived, live), result);
+        verify(entityManager).detach(live);
     }
 
     @Test
-    void testGetEntriesForCSV_WithEntriesOutOfDateRange() {
+    void testStreamEntriesForCSV_StartDateAfterEndDate() {
         Wallet wallet = new Wallet();
-        List<Entry> entries = new ArrayList<>();
+        wallet.setId(WALLET_ID);
         LocalDateTime now = LocalDateTime.now();
 
-        entries.add(createEntry(now.minusDays(3), new BigDecimal(VAL_OF_100)));
-        entries.add(createEntry(now.minusDays(2), new BigDecimal(VAL_OF_200)));
-        entries.add(createEntry(now.plusDays(3), new BigDecimal(VAL_OF_300)));
+        Throwable thrown = catchThrowable(() -> userService.streamEntriesForCSV(wallet, now, now.minusDays(1), entry -> { }));
 
-        wallet.setEntries(entries);
-
-        LocalDateTime startDate = now.minusDays(1);
-        LocalDateTime endDate = now.plusDays(1);
-
-        List<Entry> result = userService.getEntriesForCSV(wallet, startDate, endDate);
-
-        assertThat(result.size() == 0).isTrue();
+        assertThat(thrown).isInstanceOf(CustomException.class);
+        verifyNoInteractions(entryRepository, entryArchiveService);
     }
 
-    @Test
-    void testGetEntriesForCSV_WithMixedEntries() {
-        Wallet wallet = new Wallet();
-        List<Entry> entries = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        entries.add(createEntry(now.minusDays(3), new BigDecimal(VAL_OF_100)));
-        entries.add(createEntry(now.minusDays(1), new BigDecimal(VAL_OF_200)));
-        entries.add(createEntry(now.plusDays(1), new BigDecimal(VAL_OF_300)));
-        entries.add(createEntry(now.plusDays(3), new BigDecimal(VAL_OF_400)));
-
-        wallet.setEntries(entries);
-
-        LocalDateTime startDate = now.minusDays(2);
-        LocalDateTime endDate = now.plusDays(2);
-
-        List<Entry> result = userService.getEntriesForCSV(wallet, startDate, endDate);
-
-        assertThat(result.size() == 2).isTrue();
+    private EntryTotal createEntryTotal(EntryType type, EntryOperationType operationType, BigDecimal total) {
+        EntryTotal entryTotal = mock(EntryTotal.class);
+        when(entryTotal.getType()).thenReturn(type);
+        when(entryTotal.getOperationType()).thenReturn(operationType);
+        when(entryTotal.getTotal()).thenReturn(total);
+        return entryTotal;
     }
 
     private Entry createEntry(LocalDateTime date, BigDecimal amount) {
@@ -0,0 +1,175 @@
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.entities.Wallet;
+import com.wallet.wallet_api.entities.WalletBalanceSnapshot;
+import com.wallet.wallet_api.entities.dto.DailyBalanceDTO;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.repositories.WalletBalanceSnapshotRepository;
+import com.wallet.wallet_api.repositories.WalletRepository;
+import com.wallet.wallet_api.services.EntryArchiveService;
+import com.wallet.wallet_api.services.WalletBalanceSnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WalletBalanceSnapshotServiceTest {
+
+    private static final Long WALLET_ID = 1L;
+    private static final Long OTHER_WALLET_ID = 2L;
+    private static final LocalDate MONDAY = LocalDate.of(2024, 6, 10);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    @Mock
+    private WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EntryArchiveService entryArchiveService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletBalanceSnapshotService walletBalanceSnapshotService;
+
+    private Wallet wallet;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        walletBalanceSnapshotService = new WalletBalanceSnapshotService(walletBalanceSnapshotRepository,
+                entryRepository, walletRepository, entryArchiveService, new TransactionTemplate(transactionManager), false);
+        wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        wallet.setBalance(new BigDecimal("500.00"));
+        when(entryArchiveService.sumBalanceChangeBetween(any(), any(), any())).thenReturn(BigDecimal.ZERO);
+        when(entryArchiveService.sumBalanceChangeFromUntilBefore(any(), any(), any())).thenReturn(BigDecimal.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testGetBalanceAt_AddsSameDayEntriesToPreviousClosingBalance() {
+        LocalDateTime at = TUESDAY.atTime(12, 0);
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(WALLET_ID, MONDAY))
+                .thenReturn(Optional.of(snapshot(MONDAY, "300.00")));
+        when(entryRepository.sumBalanceChangeBetween(WALLET_ID, TUESDAY.atStartOfDay(), at))
+                .thenReturn(new BigDecimal("-20.00"));
+
+        BigDecimal balance = walletBalanceSnapshotService.getBalanceAt(wallet, at);
+
+        assertEquals(new BigDecimal("280.00"), balance);
+    }
+
+    @Test
+    void testGetBalanceAt_BeforeFirstSnapshotUsesOpeningBalanceOfFirstDay() {
+        LocalDateTime at = MONDAY.atTime(8, 0);
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateGreaterThanOrderByDateAsc(WALLET_ID, MONDAY.minusDays(1)))
+                .thenReturn(Optional.of(snapshot(MONDAY, "300.00")));
+        when(entryRepository.sumBalanceChangeFromUntilBefore(WALLET_ID, MONDAY.atStartOfDay(), TUESDAY.atStartOfDay()))
+                .thenReturn(new BigDecimal("100.00"));
+        when(entryRepository.sumBalanceChangeBetween(WALLET_ID, MONDAY.atStartOfDay(), at))
+                .thenReturn(new BigDecimal("40.00"));
+
+        BigDecimal balance = walletBalanceSnapshotService.getBalanceAt(wallet, at);
+
+        assertEquals(new BigDecimal("240.00"), balance);
+    }
+
+    @Test
+    void testGetBalanceAt_WalletWithoutSnapshotsHasCurrentBalance() {
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateGreaterThanOrderByDateAsc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(entryRepository.sumBalanceChangeBetween(any(), any(), any())).thenReturn(BigDecimal.ZERO);
+
+        BigDecimal balance = walletBalanceSnapshotService.getBalanceAt(wallet, MONDAY.atTime(8, 0));
+
+        assertEquals(new BigDecimal("500.00"), balance);
+    }
+
+    @Test
+    void testGetBalanceHistory_CarriesClosingBalanceOverDaysWithoutEntries() {
+        LocalDate wednesday = TUESDAY.plusDays(1);
+        when(walletBalanceSnapshotRepository.findFirstByWalletIdAndDateLessThanEqualOrderByDateDesc(WALLET_ID, MONDAY.minusDays(1)))
+                .thenReturn(Optional.of(snapshot(MONDAY.minusDays(3), "100.00")));
+        when(walletBalanceSnapshotRepository.findByWalletIdAndDateBetweenOrderByDateAsc(WALLET_ID, MONDAY, wednesday))
+                .thenReturn(List.of(snapshot(TUESDAY, "150.00")));
+
+        List<DailyBalanceDTO> history = walletBalanceSnapshotService.getBalanceHistory(wallet, MONDAY, wednesday);
+
+        assertEquals(List.of(
+                new DailyBalanceDTO(MONDAY, new BigDecimal("100.00")),
+                new DailyBalanceDTO(TUESDAY, new BigDecimal("150.00")),
+                new DailyBalanceDTO(wednesday, new BigDecimal("150.00"))), history);
+    }
+
+    @Test
+    void testGetBalanceHistory_RangeTooLong() {
+        assertThrows(IllegalArgumentException.class, () -> walletBalanceSnapshotService.getBalanceHistory(wallet,
+                MONDAY, MONDAY.plusDays(WalletBalanceSnapshotService.MAX_BALANCE_HISTORY_DAYS)));
+    }
+
+    @Test
+    void testRecordClosingBalances_OneUpsertPerDay() {
+        Wallet otherWallet = new Wallet();
+        otherWallet.setId(OTHER_WALLET_ID);
+
+        walletBalanceSnapshotService.recordClosingBalances(List.of(
+                entry(wallet, TUESDAY.atTime(10, 0), "10.00", EntryOperationType.CREDIT),
+                entry(otherWallet, TUESDAY.atTime(10, 0), "10.00", EntryOperationType.DEBIT)));
+
+        verify(walletBalanceSnapshotRepository).upsertClosingBalances(List.of(WALLET_ID, OTHER_WALLET_ID), TUESDAY);
+        verify(walletBalanceSnapshotRepository, never()).upsertClosingBalance(any(), any(), any());
+    }
+
+    @Test
+    void testRecordClosingBalances_EntriesAcrossMidnightCloseEarlierDay() {
+        walletBalanceSnapshotService.recordClosingBalances(List.of(
+                entry(wallet, MONDAY.atTime(23, 59, 59), "10.00", EntryOperationType.CREDIT),
+                entry(wallet, TUESDAY.atStartOfDay(), "25.00", EntryOperationType.DEBIT),
+                entry(wallet, TUESDAY.atTime(0, 0, 1), "5.00", EntryOperationType.CREDIT)));
+
+        verify(walletBalanceSnapshotRepository).upsertClosingBalance(WALLET_ID, MONDAY, new BigDecimal("20.00"));
+        verify(walletBalanceSnapshotRepository).upsertClosingBalances(List.of(WALLET_ID), TUESDAY);
+    }
+
+    private WalletBalanceSnapshot snapshot(LocalDate date, String closingBalance) {
+        return new WalletBalanceSnapshot(null, wallet, date, new BigDecimal(closingBalance));
+    }
+
+    private static Entry entry(Wallet wallet, LocalDateTime date, String amount, EntryOperationType operationType) {
+        Entry entry = new Entry();
+        entry.setWallet(wallet);
+        entry.setDate(date);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setOperationType(operationType);
+        return entry;
+    }
+}
@@ -0,0 +1,128 @@
+package com.wallet.wallet_api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.wallet.wallet_api.restcontrollers.UserController;
+import com.wallet.wallet_api.services.TransferCommandWorkers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+		"wallet.transfer.async.enabled=true",
+		"wallet.transfer.async.workers=2",
+		// the workers poll once at startup; the tests drain the outbox themselves
+		"wallet.transfer.async.poll-interval=1h",
+		"spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc(addFilters = false)
+class AsyncTransferTests {
+
+	// carol_white and jane_doe, both in EUR
+	private static final long SENDER = 5;
+
+	private static final long RECEIVER = 2;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransferCommandWorkers transferCommandWorkers;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void transfersOfAWalletAreAcceptedWithOneInsertAndAppliedInOrder() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		BigDecimal balance = balance(SENDER);
+		BigDecimal almostAll = balance.subtract(BigDecimal.ONE);
+
+		statistics.clear();
+		String first = submit(SENDER, RECEIVER, almostAll);
+		assertEquals(1, statistics.getPrepareStatementCount());
+		String second = submit(SENDER, RECEIVER, new BigDecimal("2.00"));
+		assertEquals("PENDING", status(first));
+		assertEquals(0, balance.compareTo(balance(SENDER)));
+
+		assertEquals(2, drain());
+
+		assertEquals("COMPLETED", status(first));
+		assertEquals("FAILED", status(second));
+		assertEquals("The withdrawal amount exceeds the current balance",
+				JsonPath.read(read(second), "$.message"));
+		assertEquals(0, BigDecimal.ONE.compareTo(balance(SENDER)));
+
+		String back = submit(RECEIVER, SENDER, almostAll);
+		assertEquals(1, drain());
+		assertEquals("COMPLETED", status(back));
+		assertEquals(0, balance.compareTo(balance(SENDER)));
+		assertEquals(0, drain());
+	}
+
+	@Test
+	void invalidTransfersAreRejectedWhenSubmitted() throws Exception {
+		MvcResult result = mockMvc.perform(post("/api/users/transfer")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(transfer(SENDER, SENDER, BigDecimal.TEN))).andReturn();
+
+		assertEquals(400, result.getResponse().getStatus());
+	}
+
+	@Test
+	void unknownTransfersAreNotFound() throws Exception {
+		assertEquals(404, mockMvc.perform(get(UserController.TRANSFER_STATUS_PATH + "42")).andReturn()
+				.getResponse().getStatus());
+	}
+
+	private String submit(long sender, long receiver, BigDecimal amount) throws Exception {
+		MvcResult result = mockMvc.perform(post("/api/users/transfer")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(transfer(sender, receiver, amount))).andReturn();
+		assertEquals(202, result.getResponse().getStatus());
+		String location = result.getResponse().getHeader(HttpHeaders.LOCATION);
+		assertNotNull(location);
+		assertTrue(location.startsWith(UserController.TRANSFER_STATUS_PATH));
+		assertEquals(UserController.TRANSFER_ACCEPTED + location, result.getResponse().getContentAsString());
+		return location;
+	}
+
+	private long drain() {
+		return transferCommandWorkers.drain(0) + transferCommandWorkers.drain(1);
+	}
+
+	private String status(String location) throws Exception {
+		return JsonPath.read(read(location), "$.status");
+	}
+
+	private String read(String location) throws Exception {
+		MvcResult result = mockMvc.perform(get(location)).andReturn();
+		assertEquals(200, result.getResponse().getStatus());
+		return result.getResponse().getContentAsString();
+	}
+
+	private BigDecimal balance(long wallet) throws Exception {
+		String json = mockMvc.perform(get("/api/users/" + wallet + "/wallets/" + wallet)).andReturn()
+				.getResponse().getContentAsString();
+		return new BigDecimal(JsonPath.parse(json).read("$.balance", Object.class).toString());
+	}
+
+	private static String transfer(long sender, long receiver, BigDecimal amount) {
+		return String.format(Locale.ROOT,
+				"{\"userId\":%d,\"walletId\":%d,\"receiverId\":%d,\"receiverWalletId\":%d,\"amount\":%s}",
+				sender, sender, receiver, receiver, amount.toPlainString());
+	}
+}
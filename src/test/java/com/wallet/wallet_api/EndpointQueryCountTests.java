@@ -0,0 +1,166 @@
+package com.wallet.wallet_api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import com.wallet.wallet_api.services.UserProfileCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Pins the number of SQL statements each read endpoint runs for the seeded user 1 and their wallet 1, so that a
+ * mapping or query change that brings back lazy loads one row at a time fails here.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+class EndpointQueryCountTests {
+
+	private static final String WALLET = "/api/users/1/wallets/1";
+
+	private static final String RANGE = "startDate=2020-01-01&endDate=2025-12-31";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserProfileCache userProfileCache;
+
+	@Autowired
+	private EntryRepository entryRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void userProfileIsReadWithOneQueryThenCached() throws Exception {
+		userProfileCache.evictAfterCommit(1L);
+
+		assertStatements(1, "/api/users/1");
+		assertEquals(0, statistics.getCollectionFetchCount());
+		assertStatements(0, "/api/users/1");
+	}
+
+	@Test
+	void usersPage() throws Exception {
+		assertStatements(3, "/api/users?size=100");
+	}
+
+	@Test
+	void walletsOfUser() throws Exception {
+		MvcResult result = assertStatements(1, "/api/users/1/wallets");
+
+		assertWalletView(result.getResponse().getContentAsString(), "$[0]");
+	}
+
+	@Test
+	void walletsOfUnknownUser() throws Exception {
+		// no wallets, so whether the user exists is checked
+		statistics.clear();
+		assertEquals(404, mockMvc.perform(get("/api/users/999/wallets")).andReturn().getResponse().getStatus());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void wallet() throws Exception {
+		MvcResult result = assertStatements(1, WALLET);
+
+		assertWalletView(result.getResponse().getContentAsString(), "$");
+	}
+
+	@Test
+	void entriesPage() throws Exception {
+		// the wallet, the page of entries, and the archived segments the page continues with
+		assertStatements(3, WALLET + "/entries?size=20");
+		assertEquals(0, statistics.getEntityFetchCount());
+	}
+
+	@Test
+	void entriesSummary() throws Exception {
+		// the wallet, the rolled up totals, and the active and archived totals of December, which ends after 23:59:59
+		assertStatements(4, WALLET + "/entries-summary?" + RANGE);
+	}
+
+	@Test
+	void entriesSummaryWithEntries() throws Exception {
+		// the wallet, the totals as above, the archived segments and the entries
+		assertStatements(6, WALLET + "/entries-summary?" + RANGE + "&includeEntries=true");
+		assertEquals(0, statistics.getEntityFetchCount());
+	}
+
+	@Test
+	void entriesCsvExport() throws Exception {
+		// the wallet, the archived segments and the entries
+		assertStatements(3, "/api/users/entries/csv?userId=1&walletId=1&" + RANGE);
+		assertEquals(0, statistics.getEntityFetchCount());
+	}
+
+	@Test
+	void balanceAt() throws Exception {
+		assertStatements(4, WALLET + "/balance?at=2023-01-01T00:00:00");
+	}
+
+	@Test
+	void balanceHistory() throws Exception {
+		assertStatements(3, WALLET + "/balance-history?startDate=2022-01-01&endDate=2022-03-31");
+	}
+
+	@Test
+	void entriesAreReadWithoutTheirWallet() {
+		statistics.clear();
+
+		List<Entry> entries = entryRepository.findByWalletIdAndDateBetweenOrderByDateAsc(1L,
+				LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2025, 12, 31, 23, 59, 59));
+
+		assertFalse(entries.isEmpty());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertFalse(Hibernate.isInitialized(entries.get(0).getWallet()));
+		assertEquals(1L, entries.get(0).getWallet().getId());
+	}
+
+	private MvcResult assertStatements(long expected, String url) throws Exception {
+		statistics.clear();
+		MvcResult result = mockMvc.perform(get(url)).andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			result = mockMvc.perform(asyncDispatch(result)).andReturn();
+		}
+		assertEquals(200, result.getResponse().getStatus(), url);
+		assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements of " + url);
+		return result;
+	}
+
+	private void assertWalletView(String json, String path) {
+		List<Entry> entries = entryRepository.findByWalletIdAndDateBetweenOrderByDateAsc(1L,
+				LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 0, 0));
+		assertEquals(1, JsonPath.<Integer>read(json, path + ".id"));
+		assertEquals("BGN", JsonPath.read(json, path + ".currency"));
+		assertEquals(entries.size(), JsonPath.<Integer>read(json, path + ".entryCount"));
+		assertEquals(entries.get(entries.size() - 1).getDate(),
+				LocalDateTime.parse(JsonPath.read(json, path + ".lastActivity")));
+		assertFalse(JsonPath.<Map<String, Object>>read(json, path).containsKey("entries"));
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.wallet.wallet_api;
+
+import com.opencsv.CSVReader;
+import com.wallet.wallet_api.entities.Entry;
+import com.wallet.wallet_api.repositories.EntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class EntriesCsvExportTests {
+
+	private static final String EXPORT = "/api/users/entries/csv?userId=1&walletId=1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntryRepository entryRepository;
+
+	@Test
+	void entriesOfTheRangeAreStreamedInDateOrder() throws Exception {
+		List<Entry> entries = entryRepository.findByWalletIdAndDateBetweenOrderByDateAsc(1L,
+				LocalDateTime.of(2022, 1, 1, 0, 0), LocalDateTime.of(2022, 12, 31, 23, 59, 59));
+		assertFalse(entries.isEmpty());
+
+		MvcResult result = mockMvc.perform(get(EXPORT + "&startDate=2022-01-01&endDate=2022-12-31")).andReturn();
+		assertTrue(result.getRequest().isAsyncStarted());
+		result = mockMvc.perform(asyncDispatch(result)).andReturn();
+
+		assertEquals(200, result.getResponse().getStatus());
+		assertEquals("attachment; filename=entries.csv", result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		List<String[]> rows = new CSVReader(new StringReader(result.getResponse().getContentAsString())).readAll();
+		assertArrayEquals(new String[]{"ID", "Amount", "Type", "Operation Type", "Date", "Wallet ID", "From Currency",
+				"To Currency"}, rows.get(0));
+		assertEquals(entries.size(), rows.size() - 1);
+		for (int i = 0; i < entries.size(); i++) {
+			String[] row = rows.get(i + 1);
+			assertEquals(entries.get(i).getId().toString(), row[0]);
+			assertEquals(0, entries.get(i).getAmount().compareTo(new BigDecimal(row[1])));
+			assertEquals(entries.get(i).getDate(), LocalDateTime.parse(row[4]));
+			assertEquals("1", row[5]);
+		}
+	}
+
+	@Test
+	void emptyRangeStreamsTheHeaderOnly() throws Exception {
+		MvcResult result = mockMvc.perform(get(EXPORT + "&startDate=1990-01-01&endDate=1990-01-31")).andReturn();
+		result = mockMvc.perform(asyncDispatch(result)).andReturn();
+
+		assertEquals(200, result.getResponse().getStatus());
+		assertEquals(1, new CSVReader(new StringReader(result.getResponse().getContentAsString())).readAll().size());
+	}
+
+}
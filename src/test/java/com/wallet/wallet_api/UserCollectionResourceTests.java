@@ -0,0 +1,68 @@
+package com.wallet.wallet_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.wallet_api.entities.User;
+import com.wallet.wallet_api.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "wallet.rest.users.collection-resource-enabled=true")
+@AutoConfigureMockMvc(addFilters = false)
+class UserCollectionResourceTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void usersAreEmbeddedAsTheirHeader() throws Exception {
+		List<User> users = userRepository.findAll(Sort.by("id"));
+
+		JsonNode embedded = getUsers("/api/users?sort=id").get("_embedded").get("users");
+
+		assertEquals(users.size(), embedded.size());
+		for (int i = 0; i < users.size(); i++) {
+			JsonNode user = embedded.get(i);
+			Set<String> fields = new HashSet<>();
+			user.fieldNames().forEachRemaining(fields::add);
+			assertEquals(Set.of("id", "username", "email", "firstName", "lastName", "_links"), fields);
+			assertFalse(user.has("wallets"));
+			assertEquals(users.get(i).getId(), user.get("id").asLong());
+			assertEquals(users.get(i).getUsername(), user.get("username").asText());
+		}
+	}
+
+	@Test
+	void pagesAreCappedAtTheMaxPageSize() throws Exception {
+		JsonNode page = getUsers("/api/users?size=100000").get("page");
+
+		assertEquals(500, page.get("size").asInt());
+	}
+
+	private JsonNode getUsers(String uri) throws Exception {
+		String body = mockMvc.perform(get(uri).accept(MediaTypes.HAL_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+}
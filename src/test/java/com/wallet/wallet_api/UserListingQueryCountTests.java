@@ -0,0 +1,68 @@
+package com.wallet.wallet_api;
+
+import com.wallet.wallet_api.entities.dto.ResponseUserDTO;
+import com.wallet.wallet_api.entities.dto.UserPageDTO;
+import com.wallet.wallet_api.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserListingQueryCountTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void usersPageIsReadWithThreeQueriesWhateverItsSize() {
+		for (int size : new int[]{1, 3, 100}) {
+			statistics.clear();
+
+			UserPageDTO page = userService.getUsersPage(null, size);
+
+			assertFalse(page.getUsers().isEmpty());
+			assertEquals(3, statistics.getPrepareStatementCount(), "queries for a page of " + size);
+			assertEquals(0, statistics.getCollectionFetchCount(), "lazy collection loads for a page of " + size);
+			assertEquals(0, statistics.getEntityFetchCount(), "lazy entity loads for a page of " + size);
+		}
+	}
+
+	@Test
+	void cursorWalksEveryUserOnce() {
+		List<ResponseUserDTO> all = userService.getUsersPage(null, 100).getUsers();
+		List<ResponseUserDTO> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			UserPageDTO page = userService.getUsersPage(cursor, 2);
+			walked.addAll(page.getUsers());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		Set<Long> ids = new HashSet<>();
+		walked.forEach(user -> assertTrue(ids.add(user.getId())));
+		assertEquals(all, walked);
+		assertTrue(all.stream().anyMatch(user -> !user.getWallets().isEmpty()));
+	}
+
+}
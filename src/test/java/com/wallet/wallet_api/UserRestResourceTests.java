@@ -0,0 +1,46 @@
+package com.wallet.wallet_api;
+
+import com.wallet.wallet_api.entities.User;
+import com.wallet.wallet_api.repositories.projections.UserHeader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMetadata;
+import org.springframework.data.rest.core.mapping.ResourceType;
+import org.springframework.data.rest.core.mapping.RepositoryResourceMappings;
+import org.springframework.http.HttpMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserRestResourceTests {
+
+	@Autowired
+	private RepositoryRestConfiguration restConfiguration;
+
+	@Autowired
+	private RepositoryResourceMappings resourceMappings;
+
+	@Test
+	void userCollectionResourceIsDisabledAndItemsStayExported() {
+		ResourceMetadata metadata = resourceMappings.getMetadataFor(User.class);
+
+		assertTrue(metadata.isExported());
+		assertFalse(metadata.getSupportedHttpMethods().getMethodsFor(ResourceType.COLLECTION).contains(HttpMethod.GET));
+		assertTrue(metadata.getSupportedHttpMethods().getMethodsFor(ResourceType.ITEM).contains(HttpMethod.GET));
+	}
+
+	@Test
+	void pagesAreCapped() {
+		assertEquals(50, restConfiguration.getDefaultPageSize());
+		assertEquals(500, restConfiguration.getMaxPageSize());
+	}
+
+	@Test
+	void headerProjectionCanBeRequested() {
+		assertEquals(UserHeader.class, restConfiguration.getProjectionConfiguration()
+				.getProjectionType(User.class, UserHeader.NAME));
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.wallet.wallet_api.benchmarks;
+
+import com.wallet.wallet_api.entities.CurrencyConverter;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the enum rate matrix of {@link CurrencyConverter} with the String keyed map it replaced, which is kept
+ * here as {@link #legacyStringKey}. It is not a test and surefire does not pick it up; see the README for how to
+ * run it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurrencyConverterBenchmark {
+
+    private static final Map<String, BigDecimal> legacyExchangeRates = new HashMap<>();
+
+    static {
+        legacyExchangeRates.put("BGN_EUR", BigDecimal.valueOf(0.51));
+        legacyExchangeRates.put("BGN_GBP", BigDecimal.valueOf(0.44));
+        legacyExchangeRates.put("BGN_USD", BigDecimal.valueOf(0.57));
+        legacyExchangeRates.put("EUR_BGN", BigDecimal.valueOf(1.96));
+        legacyExchangeRates.put("EUR_GBP", BigDecimal.valueOf(0.86));
+        legacyExchangeRates.put("EUR_USD", BigDecimal.valueOf(1.18));
+        legacyExchangeRates.put("GBP_BGN", BigDecimal.valueOf(2.27));
+        legacyExchangeRates.put("GBP_EUR", BigDecimal.valueOf(1.16));
+        legacyExchangeRates.put("GBP_USD", BigDecimal.valueOf(1.38));
+        legacyExchangeRates.put("USD_BGN", BigDecimal.valueOf(1.75));
+        legacyExchangeRates.put("USD_EUR", BigDecimal.valueOf(0.85));
+        legacyExchangeRates.put("USD_GBP", BigDecimal.valueOf(0.72));
+    }
+
+    private final BigDecimal amount = new BigDecimal("1234.56");
+
+    @Param({"EUR"})
+    private CurrencyCode fromCurrency;
+
+    @Param({"USD"})
+    private CurrencyCode toCurrency;
+
+    @Benchmark
+    public BigDecimal legacyStringKey() {
+        if (fromCurrency.toString().equals(toCurrency.toString())) {
+            return amount;
+        }
+        String key = fromCurrency.toString() + "_" + toCurrency.toString();
+        BigDecimal rate = legacyExchangeRates.get(key);
+        if (rate == null) {
+            throw new IllegalArgumentException("Exchange rate not found for " + key);
+        }
+        return amount.multiply(rate);
+    }
+
+    @Benchmark
+    public BigDecimal stringAdapter() {
+        return CurrencyConverter.convert(amount, fromCurrency.toString(), toCurrency.toString());
+    }
+
+    @Benchmark
+    public BigDecimal enumMatrix() {
+        return CurrencyConverter.convert(amount, fromCurrency, toCurrency);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CurrencyConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,164 @@
+package com.wallet.wallet_api.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives the transfer and the entries summary endpoints of a running application with a fixed number of clients,
+ * each sending its next request as soon as the previous one is answered, and prints the throughput and latencies
+ * per endpoint and concurrency. Start the application once with {@code spring.threads.virtual.enabled=false} and
+ * once with it on (Java 21) and compare; see the README.
+ * <p>
+ * Arguments: the base URL (default {@code http://localhost:8080}), the seconds per run (default 20) and the
+ * concurrency levels (default {@code 16,64,256}). Transfers move 0.01 between the seeded wallets 1 to 6.
+ */
+public class EndpointLoadComparison {
+
+    private static final int WALLETS = 6;
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        Duration runTime = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        int[] concurrencies = Arrays.stream((args.length > 2 ? args[2] : "16,64,256").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(8))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String summaryUrl = baseUrl + "/api/users/%d/wallets/%d/entries-summary?startDate=2020-01-01&endDate=2025-12-31";
+        String transferUrl = baseUrl + "/api/users/transfer";
+
+        System.out.printf("%-9s %11s %9s %9s %9s %9s %8s%n",
+                "endpoint", "concurrency", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int concurrency : concurrencies) {
+            run(client, concurrency, WARMUP, () -> summary(summaryUrl));
+            print("summary", concurrency, runTime, run(client, concurrency, runTime, () -> summary(summaryUrl)));
+            run(client, concurrency, WARMUP, () -> transfer(transferUrl));
+            print("transfer", concurrency, runTime, run(client, concurrency, runTime, () -> transfer(transferUrl)));
+        }
+        System.exit(0);
+    }
+
+    private static HttpRequest summary(String url) {
+        int wallet = 1 + ThreadLocalRandom.current().nextInt(WALLETS);
+        return HttpRequest.newBuilder(URI.create(String.format(Locale.ROOT, url, wallet, wallet)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest transfer(String url) {
+        int sender = 1 + ThreadLocalRandom.current().nextInt(WALLETS);
+        int receiver = 1 + (sender + ThreadLocalRandom.current().nextInt(WALLETS - 1)) % WALLETS;
+        String body = String.format(Locale.ROOT,
+                "{\"userId\":%d,\"walletId\":%d,\"receiverId\":%d,\"receiverWalletId\":%d,\"amount\":0.01}",
+                sender, sender, receiver, receiver);
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static Result run(HttpClient client, int concurrency, Duration duration, RequestFactory requests)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> {
+                    Result result = new Result();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requests.next(), HttpResponse.BodyHandlers.discarding());
+                            result.add(System.nanoTime() - start, response.statusCode() / 100 == 2);
+                        } catch (IOException ex) {
+                            result.add(System.nanoTime() - start, false);
+                        }
+                    }
+                    return result;
+                }));
+            }
+            Result total = new Result();
+            for (Future<Result> result : results) {
+                total.addAll(result.get());
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void print(String name, int concurrency, Duration duration, Result result) {
+        long[] latencies = result.sortedLatencies();
+        System.out.printf(Locale.ROOT, "%-9s %11d %9.0f %9.1f %9.1f %9.1f %8d%n", name, concurrency,
+                latencies.length / (double) duration.toSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6, result.errors);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private interface RequestFactory {
+
+        HttpRequest next();
+
+    }
+
+    private static final class Result {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.wallet.wallet_api.benchmarks;
+
+import com.wallet.wallet_api.entities.id.TimeOrderedIdGenerator;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Compares writing entries with database-generated ids, which Hibernate has to insert one statement and one round
+ * trip at a time to read each id back, and with {@link TimeOrderedIdGenerator} ids, which it inserts in JDBC
+ * batches of {@code hibernate.jdbc.batch_size} that the driver rewrites into multi-row inserts. Each run writes
+ * the rows in transactions of {@value #CHUNK} into a scratch table, dropped at the end, and the median rows per
+ * second of the last half of the runs is printed.
+ * <p>
+ * Arguments: the JDBC URL (default: the local database of {@code application.properties}), the user and the
+ * password, the rows per run (default 20000) and the number of runs (default 20).
+ */
+public class EntryInsertComparison {
+
+    private static final int CHUNK = 500;
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String COLUMNS = "amount DECIMAL(38,2), type VARCHAR(255), operation_type VARCHAR(255), "
+            + "date DATETIME(6), wallet_id BIGINT, from_currency VARCHAR(255), to_currency VARCHAR(255)";
+
+    private static final String VALUES = "amount, type, operation_type, date, wallet_id, from_currency, to_currency";
+
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? args[0] : "jdbc:mysql://localhost:3307/wallet_api?useSSL=false"
+                + "&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+        String user = args.length > 1 ? args[1] : "yourusername";
+        String password = args.length > 2 ? args[2] : "yourpassword";
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int runs = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE bench_entry_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, " + COLUMNS + ")");
+            ddl.execute("CREATE TABLE bench_entry_assigned (id BIGINT PRIMARY KEY, " + COLUMNS + ")");
+            try {
+                connection.setAutoCommit(false);
+                TimeOrderedIdGenerator ids = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE);
+                double[] identity = new double[runs];
+                double[] assigned = new double[runs];
+                for (int run = 0; run < runs; run++) {
+                    identity[run] = rowsPerSecond(rows, () -> insertWithIdentity(connection, rows));
+                    assigned[run] = rowsPerSecond(rows, () -> insertWithAssignedIds(connection, rows, ids));
+                }
+                System.out.printf(Locale.ROOT, "%-20s %10.0f rows/s%n", "IDENTITY", median(identity));
+                System.out.printf(Locale.ROOT, "%-20s %10.0f rows/s%n", "time-ordered ids", median(assigned));
+            } finally {
+                connection.setAutoCommit(true);
+                ddl.execute("DROP TABLE bench_entry_identity");
+                ddl.execute("DROP TABLE bench_entry_assigned");
+            }
+        }
+    }
+
+    private static void insertWithIdentity(Connection connection, int rows) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_entry_identity (" + VALUES + ") VALUES (?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int row = 0; row < rows; row++) {
+                bind(insert, 1, row);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                }
+                if ((row + 1) % CHUNK == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private static void insertWithAssignedIds(Connection connection, int rows, TimeOrderedIdGenerator ids)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_entry_assigned (id, " + VALUES + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int row = 0; row < rows; row++) {
+                insert.setLong(1, ids.nextId());
+                bind(insert, 2, row);
+                insert.addBatch();
+                if ((row + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if ((row + 1) % CHUNK == 0) {
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static void bind(PreparedStatement insert, int first, int row) throws SQLException {
+        insert.setBigDecimal(first, BigDecimal.valueOf(1 + row % 100_000, 2));
+        insert.setString(first + 1, "TRANSFER");
+        insert.setString(first + 2, row % 2 == 0 ? "DEBIT" : "CREDIT");
+        insert.setTimestamp(first + 3, new Timestamp(System.currentTimeMillis()));
+        insert.setLong(first + 4, 1 + row % 6);
+        insert.setString(first + 5, "EUR");
+        insert.setString(first + 6, "EUR");
+    }
+
+    private static double rowsPerSecond(int rows, Insert insert) throws SQLException {
+        long start = System.nanoTime();
+        insert.run();
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double median(double[] runs) {
+        double[] lastHalf = Arrays.copyOfRange(runs, runs.length / 2, runs.length);
+        Arrays.sort(lastHalf);
+        return lastHalf[lastHalf.length / 2];
+    }
+
+    private interface Insert {
+
+        void run() throws SQLException;
+
+    }
+}
@@ -0,0 +1,147 @@
+package com.wallet.wallet_api.benchmarks;
+
+import com.wallet.wallet_api.entities.Money;
+import com.wallet.wallet_api.entities.enums.CurrencyCode;
+import com.wallet.wallet_api.entities.enums.EntryOperationType;
+import com.wallet.wallet_api.entities.enums.EntryType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares summing entry amounts and applying a batch of transfers with {@link BigDecimal} arithmetic, as the
+ * summaries and batch transfers did, and with {@link Money}. Run it with {@code -prof gc} to see the
+ * allocation rate; see the README for how to run it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final int WALLETS = 16;
+
+    private static final CurrencyCode CURRENCY = CurrencyCode.EUR;
+
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+
+    private static final EntryOperationType[] OPERATION_TYPES = EntryOperationType.values();
+
+    @Param({"1000"})
+    private int size;
+
+    private BigDecimal[] amounts;
+
+    private EntryType[] types;
+
+    private EntryOperationType[] operationTypes;
+
+    private int[] senders;
+
+    private int[] receivers;
+
+    private BigDecimal[] initialBalances;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[size];
+        types = new EntryType[size];
+        operationTypes = new EntryOperationType[size];
+        senders = new int[size];
+        receivers = new int[size];
+        for (int i = 0; i < size; i++) {
+            amounts[i] = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+            types[i] = ENTRY_TYPES[random.nextInt(ENTRY_TYPES.length)];
+            operationTypes[i] = OPERATION_TYPES[random.nextInt(OPERATION_TYPES.length)];
+            senders[i] = random.nextInt(WALLETS);
+            receivers[i] = random.nextInt(WALLETS);
+        }
+        initialBalances = new BigDecimal[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            initialBalances[i] = BigDecimal.valueOf(10_000_00, 2);
+        }
+    }
+
+    @Benchmark
+    public Map<EntryType, BigDecimal> summaryBigDecimal() {
+        Map<EntryType, BigDecimal> debitByType = new EnumMap<>(EntryType.class);
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        for (int i = 0; i < size; i++) {
+            if (operationTypes[i] == EntryOperationType.DEBIT) {
+                debitByType.merge(types[i], amounts[i], BigDecimal::add);
+            } else {
+                totalCredit = totalCredit.add(amounts[i]);
+            }
+        }
+        debitByType.put(EntryType.WITHDRAWAL, totalCredit);
+        return debitByType;
+    }
+
+    @Benchmark
+    public Map<EntryType, BigDecimal> summaryMoney() {
+        Map<EntryType, Money> debitByType = new EnumMap<>(EntryType.class);
+        Money totalCredit = Money.zero(CURRENCY);
+        for (int i = 0; i < size; i++) {
+            Money amount = Money.of(amounts[i], CURRENCY);
+            if (operationTypes[i] == EntryOperationType.DEBIT) {
+                debitByType.merge(types[i], amount, Money::plus);
+            } else {
+                totalCredit = totalCredit.plus(amount);
+            }
+        }
+        Map<EntryType, BigDecimal> result = new EnumMap<>(EntryType.class);
+        debitByType.forEach((type, amount) -> result.put(type, amount.toBigDecimal()));
+        result.put(EntryType.WITHDRAWAL, totalCredit.toBigDecimal());
+        return result;
+    }
+
+    @Benchmark
+    public BigDecimal[] transferBigDecimal() {
+        BigDecimal[] balances = initialBalances.clone();
+        for (int i = 0; i < size; i++) {
+            if (balances[senders[i]].compareTo(amounts[i]) < 0) {
+                continue;
+            }
+            balances[senders[i]] = balances[senders[i]].subtract(amounts[i]);
+            balances[receivers[i]] = balances[receivers[i]].add(amounts[i]);
+        }
+        return balances;
+    }
+
+    @Benchmark
+    public BigDecimal[] transferMoney() {
+        Money[] balances = new Money[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            balances[i] = Money.of(initialBalances[i], CURRENCY);
+        }
+        for (int i = 0; i < size; i++) {
+            Money amount = Money.of(amounts[i], CURRENCY);
+            if (balances[senders[i]].isLessThan(amount)) {
+                continue;
+            }
+            balances[senders[i]] = balances[senders[i]].minus(amount);
+            balances[receivers[i]] = balances[receivers[i]].plus(amount);
+        }
+        BigDecimal[] result = new BigDecimal[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            result[i] = balances[i].toBigDecimal();
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}